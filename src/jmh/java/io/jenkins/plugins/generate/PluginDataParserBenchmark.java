@@ -0,0 +1,60 @@
+package io.jenkins.plugins.generate;
+
+import io.jenkins.plugins.models.Plugin;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Measures each <code>PluginDataParser</code> against recorded fixtures instead of the live update center</p>
+ *
+ * <p>One operation parses every plugin of the fixture update center. Parsers and fixtures come from
+ * <code>PluginDataParserFixtures</code>, so <code>benchmark.fixtures</code> can point to a directory of full
+ * fixtures. Parsers reading fields of <code>Plugin</code> get plugins already holding the fields they read, e.g. labels
+ * for categories.</p>
+ *
+ * <p>Run with <code>mvn -P benchmark</code>. The gc profiler is enabled so allocation rate is reported next to
+ * throughput. The values of <code>parser</code> are the keys of <code>PluginDataParserFixtures.getParsers()</code>,
+ * each of which <code>PluginDataParserBenchmarkTest</code> runs once as part of the unit tests.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PluginDataParserBenchmark {
+
+  @Param({"categories", "dependencies", "firstRelease", "labels", "maintainers", "root", "scm", "securityWarnings",
+    "stats", "wiki"})
+  private String parser;
+
+  private List<JSONObject> plugins;
+  private List<Plugin> seeds;
+  private PluginDataParser pluginDataParser;
+
+  @Setup
+  public void setUp() throws IOException {
+    final PluginDataParserFixtures fixtures = PluginDataParserFixtures.load();
+    plugins = fixtures.getPlugins();
+    pluginDataParser = fixtures.getParsers().get(parser);
+    if (pluginDataParser == null) {
+      throw new IllegalArgumentException("Unknown parser " + parser);
+    }
+    seeds = fixtures.seed(pluginDataParser);
+  }
+
+  @Benchmark
+  public void parse(Blackhole blackhole) {
+    for (int i = 0; i < plugins.size(); i++) {
+      final Plugin plugin = seeds.get(i);
+      pluginDataParser.parse(plugins.get(i), plugin);
+      blackhole.consume(plugin);
+    }
+  }
+
+}
@@ -33,7 +33,10 @@ public class RestApp extends ResourceConfig {
       public void onStartup(Container container) {
         final ServiceLocator locator = container.getApplicationHandler().getServiceLocator();
         final PrepareDatastoreService service = locator.getService(PrepareDatastoreService.class);
-        service.populateDataStore();
+        // Prefer the local snapshot so startup doesn't wait on the data file host
+        if (!service.populateDataStoreFromSnapshot()) {
+          service.populateDataStore();
+        }
         service.schedulePopulateDataStore();
       }
 
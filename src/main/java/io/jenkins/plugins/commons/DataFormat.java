@@ -0,0 +1,74 @@
+package io.jenkins.plugins.commons;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * <p>Encodings of the gzip'd plugin data file handed from <code>GeneratePluginData</code> to the service</p>
+ *
+ * <p><code>SMILE</code> is Jackson's binary JSON. It holds the same documents as <code>JSON</code> but is smaller and
+ * decodes without tokenizing text. A data file announces its format with its content type or, failing that, its file
+ * extension; anything unrecognized is read as <code>JSON</code>.</p>
+ */
+public enum DataFormat {
+
+  JSON("plugins.json.gzip", ".json", "application/json"),
+  SMILE("plugins.smile.gzip", ".smile", "application/x-jackson-smile");
+
+  private static final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+  private final String fileName;
+  private final String extension;
+  private final String contentType;
+
+  DataFormat(String fileName, String extension, String contentType) {
+    this.fileName = fileName;
+    this.extension = extension;
+    this.contentType = contentType;
+  }
+
+  /**
+   * @return name of the data file written by <code>GeneratePluginData</code>
+   */
+  public String getFileName() {
+    return fileName;
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  public ObjectMapper getObjectMapper() {
+    return this == SMILE ? smileMapper : JsonObjectMapper.getObjectMapper();
+  }
+
+  public static DataFormat fromString(String s) {
+    return valueOf(s.toUpperCase());
+  }
+
+  /**
+   * @param contentType Content type the data file was served with, may be null
+   * @param name URL or file name of the data file, may be null
+   * @return format announced by <code>contentType</code> or the extension of <code>name</code>, ignoring any
+   * <code>.gz</code> or <code>.gzip</code> suffix, <code>JSON</code> if neither is recognized
+   */
+  public static DataFormat detect(String contentType, String name) {
+    final String mimeType = StringUtils.substringBefore(StringUtils.trimToEmpty(contentType), ";").trim();
+    for (DataFormat format : values()) {
+      if (format.contentType.equalsIgnoreCase(mimeType)) {
+        return format;
+      }
+    }
+    final String path = StringUtils.substringBefore(StringUtils.substringBefore(StringUtils.trimToEmpty(name), "?"), "#");
+    final String fileName = StringUtils.removeEnd(StringUtils.removeEnd(
+      StringUtils.substringAfterLast("/" + path, "/").toLowerCase(), ".gzip"), ".gz");
+    for (DataFormat format : values()) {
+      if (fileName.endsWith(format.extension)) {
+        return format;
+      }
+    }
+    return JSON;
+  }
+
+}
@@ -0,0 +1,176 @@
+package io.jenkins.plugins.commons;
+
+import io.jenkins.plugins.models.Plugin;
+import io.jenkins.plugins.models.SecurityWarning;
+import io.jenkins.plugins.models.SecurityWarningVersion;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Security warnings keyed by plugin name with their version patterns compiled once</p>
+ *
+ * <p>Built either from the <code>warnings</code> of the update center while generating plugin data, or from the
+ * <code>securityWarnings</code> of already generated plugins at runtime. Looking up whether a version is affected is a
+ * map lookup followed by matching the few precompiled patterns of that plugin's warnings.</p>
+ */
+public class SecurityWarningIndex {
+
+  private static final SecurityWarningIndex EMPTY = new SecurityWarningIndex(Collections.emptyMap());
+
+  private final Map<String, List<IndexedWarning>> nameToWarnings;
+
+  private SecurityWarningIndex(Map<String, List<IndexedWarning>> nameToWarnings) {
+    this.nameToWarnings = nameToWarnings;
+  }
+
+  public static SecurityWarningIndex empty() {
+    return EMPTY;
+  }
+
+  /**
+   * @param warningsJson <code>warnings</code> of the update center
+   * @return index of the warnings with type <code>plugin</code>
+   */
+  public static SecurityWarningIndex fromUpdateCenter(JSONArray warningsJson) {
+    final Map<String, List<IndexedWarning>> nameToWarnings = new HashMap<>();
+    for (Object obj : warningsJson) {
+      final JSONObject warningJson = (JSONObject) obj;
+      if (!warningJson.getString("type").equalsIgnoreCase("plugin")) {
+        continue;
+      }
+      final JSONArray versionsJson = warningJson.getJSONArray("versions");
+      final List<SecurityWarningVersion> versions = new ArrayList<>(versionsJson.length());
+      for (Object versionObj : versionsJson) {
+        final JSONObject versionJson = (JSONObject) versionObj;
+        versions.add(new SecurityWarningVersion(
+          versionJson.optString("firstVersion", null),
+          versionJson.optString("lastVersion", null),
+          versionJson.getString("pattern")
+        ));
+      }
+      nameToWarnings.computeIfAbsent(warningJson.getString("name"), name -> new ArrayList<>()).add(new IndexedWarning(
+        warningJson.getString("id"),
+        warningJson.getString("message"),
+        warningJson.getString("url"),
+        versions
+      ));
+    }
+    return new SecurityWarningIndex(nameToWarnings);
+  }
+
+  /**
+   * <p>Warnings without a version pattern, e.g. from data generated before patterns were kept, never match</p>
+   *
+   * @param plugins Generated plugins
+   * @return index of the security warnings of <code>plugins</code>
+   */
+  public static SecurityWarningIndex fromPlugins(Collection<Plugin> plugins) {
+    final Map<String, List<IndexedWarning>> nameToWarnings = new HashMap<>();
+    for (Plugin plugin : plugins) {
+      if (plugin.getSecurityWarnings() == null || plugin.getSecurityWarnings().isEmpty()) {
+        continue;
+      }
+      final List<IndexedWarning> warnings = new ArrayList<>(plugin.getSecurityWarnings().size());
+      for (SecurityWarning warning : plugin.getSecurityWarnings()) {
+        warnings.add(new IndexedWarning(warning.getId(), warning.getMessage(), warning.getUrl(),
+          warning.getVersions() != null ? warning.getVersions() : Collections.emptyList()));
+      }
+      nameToWarnings.put(plugin.getName(), warnings);
+    }
+    return new SecurityWarningIndex(nameToWarnings);
+  }
+
+  public boolean hasWarnings(String name) {
+    return nameToWarnings.containsKey(name);
+  }
+
+  /**
+   * @param name Plugin name
+   * @param version Plugin version
+   * @return every warning of the plugin, marked active if <code>version</code> is affected, null if there are none
+   */
+  public List<SecurityWarning> getWarnings(String name, String version) {
+    final List<IndexedWarning> warnings = nameToWarnings.get(name);
+    if (warnings == null) {
+      return null;
+    }
+    final List<SecurityWarning> result = new ArrayList<>(warnings.size());
+    for (IndexedWarning warning : warnings) {
+      result.add(new SecurityWarning(warning.id, warning.message, warning.url, warning.affects(version), warning.versions));
+    }
+    return result;
+  }
+
+  /**
+   * @param name Plugin name
+   * @param version Plugin version
+   * @return whether <code>version</code> of the plugin is affected by any warning
+   */
+  public boolean isAffected(String name, String version) {
+    for (IndexedWarning warning : nameToWarnings.getOrDefault(name, Collections.emptyList())) {
+      if (warning.affects(version)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * <p>Content of the plugin's warnings for <code>Fingerprint</code></p>
+   *
+   * @param name Plugin name
+   * @return id, message, url and versions of each warning in order
+   */
+  public List<String> getFingerprintContent(String name) {
+    final List<String> content = new ArrayList<>();
+    for (IndexedWarning warning : nameToWarnings.getOrDefault(name, Collections.emptyList())) {
+      content.add(warning.id);
+      content.add(warning.message);
+      content.add(warning.url);
+      for (SecurityWarningVersion version : warning.versions) {
+        content.add(version.getFirstVersion());
+        content.add(version.getLastVersion());
+        content.add(version.getPattern());
+      }
+    }
+    return content;
+  }
+
+  private static class IndexedWarning {
+
+    private final String id;
+    private final String message;
+    private final String url;
+    private final List<SecurityWarningVersion> versions;
+    private final Pattern[] patterns;
+
+    private IndexedWarning(String id, String message, String url, List<SecurityWarningVersion> versions) {
+      this.id = id;
+      this.message = message;
+      this.url = url;
+      this.versions = Collections.unmodifiableList(versions);
+      this.patterns = versions.stream()
+        .map(SecurityWarningVersion::getPattern)
+        .filter(Objects::nonNull)
+        .map(Pattern::compile)
+        .toArray(Pattern[]::new);
+    }
+
+    private boolean affects(String version) {
+      if (version == null) {
+        return false;
+      }
+      for (Pattern pattern : patterns) {
+        if (pattern.matcher(version).matches()) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+  }
+
+}
@@ -1,5 +1,6 @@
 package io.jenkins.plugins.datastore;
 
+import io.jenkins.plugins.utils.ConfigUtils;
 import org.apache.commons.io.FileUtils;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.common.settings.Settings;
@@ -13,16 +14,22 @@ import javax.annotation.PreDestroy;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Paths;
 
 /**
  * Copied and modified from:
  * https://orrsella.com/2014/10/28/embedded-elasticsearch-server-for-scala-integration-tests/
+ *
+ * <p>The data lives in the directory given by <code>ELASTICSEARCH_DATA_DIR</code> or
+ * <code>elasticsearch.data.dir</code> and is kept across restarts. Without either, a temporary directory is used and
+ * deleted on shutdown.</p>
  */
 public class EmbeddedElasticsearchServer {
 
   private final Logger logger = LoggerFactory.getLogger(EmbeddedElasticsearchServer.class);
 
-  private File tempDir;
+  private File homeDir;
+  private boolean temporary;
   private Node node;
 
   public Client getClient() {
@@ -32,18 +39,28 @@ public class EmbeddedElasticsearchServer {
   @PostConstruct
   public void postConstruct() {
     logger.info("Initialize elasticsearch");
+    final String dataDir = ConfigUtils.getString("ELASTICSEARCH_DATA_DIR", "elasticsearch.data.dir", null);
     try {
-      tempDir = Files.createTempDirectory("elasticsearch_").toFile();
+      if (dataDir != null) {
+        homeDir = Files.createDirectories(Paths.get(dataDir)).toFile().getAbsoluteFile();
+        temporary = false;
+        logger.info(String.format("Using persistent data directory %s", homeDir));
+      } else {
+        homeDir = Files.createTempDirectory("elasticsearch_").toFile();
+        temporary = true;
+      }
     } catch (IOException e) {
-      logger.error("Problem creating temp data directory", e);
+      logger.error("Problem creating data directory", e);
       throw new RuntimeException(e);
     }
     final Settings settings = Settings.settingsBuilder()
-      .put("path.home", tempDir)
+      .put("path.home", homeDir)
       .put("http.enabled", "false")
       .build();
     node = NodeBuilder.nodeBuilder().local(true).settings(settings).build();
     node.start();
+    // Indices kept in a persistent data directory have to recover before they can be searched
+    node.client().admin().cluster().prepareHealth().setWaitForYellowStatus().get();
     logger.info("Initialized elasticsearch");
   }
 
@@ -52,7 +69,9 @@ public class EmbeddedElasticsearchServer {
     logger.info("Destroying elasticsearch");
     node.client().close();
     node.close();
-    FileUtils.deleteQuietly(tempDir);
+    if (temporary) {
+      FileUtils.deleteQuietly(homeDir);
+    }
     logger.info("Destroyed elasticsearch");
   }
 
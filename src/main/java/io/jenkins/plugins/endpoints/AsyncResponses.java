@@ -0,0 +1,49 @@
+package io.jenkins.plugins.endpoints;
+
+import org.slf4j.Logger;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.Response;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Resumes suspended requests with the outcome of a <code>CompletionStage</code></p>
+ */
+final class AsyncResponses {
+
+  // Requests still waiting after this long are answered with 503
+  private static final long TIMEOUT_SECONDS = 30;
+
+  private AsyncResponses() {
+  }
+
+  /**
+   * <p>Resume <code>asyncResponse</code> with the result of <code>stage</code>, with 404 if the result is null and
+   * with 500 if <code>stage</code> failed, unless it failed with a <code>WebApplicationException</code></p>
+   *
+   * <p>The response is written on the common pool rather than on the thread completing <code>stage</code>, which is
+   * usually an Elasticsearch thread.</p>
+   *
+   * @param message Logged if <code>stage</code> failed
+   */
+  static <T> void resume(AsyncResponse asyncResponse, CompletionStage<T> stage, Logger logger, String message) {
+    asyncResponse.setTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    stage.whenCompleteAsync((result, e) -> {
+      final Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+      if (cause instanceof WebApplicationException) {
+        asyncResponse.resume(cause);
+      } else if (cause != null) {
+        logger.error(message, cause);
+        asyncResponse.resume(new WebApplicationException(Response.Status.INTERNAL_SERVER_ERROR));
+      } else if (result == null) {
+        asyncResponse.resume(new WebApplicationException(Response.Status.NOT_FOUND));
+      } else {
+        asyncResponse.resume(result);
+      }
+    });
+  }
+
+}
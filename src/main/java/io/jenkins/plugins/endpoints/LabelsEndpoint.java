@@ -1,7 +1,8 @@
 package io.jenkins.plugins.endpoints;
 
-import io.jenkins.plugins.models.Labels;
-import io.jenkins.plugins.services.DatastoreService;
+import io.jenkins.plugins.services.AsyncDatastoreService;
+import io.jenkins.plugins.services.Facets;
+import io.jenkins.plugins.services.PrepareDatastoreService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -9,7 +10,8 @@ import javax.inject.Inject;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
-import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
@@ -25,15 +27,18 @@ public class LabelsEndpoint {
   private Logger logger = LoggerFactory.getLogger(LabelsEndpoint.class);
 
   @Inject
-  private DatastoreService datastoreService;
+  private AsyncDatastoreService datastoreService;
+
+  @Inject
+  private PrepareDatastoreService prepareDatastoreService;
 
   @GET
-  public Labels getLabels() {
-    try {
-      return datastoreService.getLabels();
-    } catch (Exception e) {
-      logger.error("Problem getting labels", e);
-      throw new WebApplicationException(Response.Status.INTERNAL_SERVER_ERROR);
+  public void getLabels(@Suspended AsyncResponse asyncResponse) {
+    final Facets facets = prepareDatastoreService.getFacets();
+    if (facets != null) {
+      asyncResponse.resume(Response.ok(facets.getLabelsJson()).build());
+    } else {
+      AsyncResponses.resume(asyncResponse, datastoreService.getLabelsAsync(), logger, "Problem getting labels");
     }
   }
 
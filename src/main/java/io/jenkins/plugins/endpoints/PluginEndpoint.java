@@ -1,17 +1,28 @@
 package io.jenkins.plugins.endpoints;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.jenkins.plugins.models.Plugin;
-import io.jenkins.plugins.services.DatastoreService;
-import io.jenkins.plugins.services.ServiceException;
+import io.jenkins.plugins.services.AsyncDatastoreService;
+import io.jenkins.plugins.services.Resolution;
 import io.jenkins.plugins.services.WikiService;
+import io.jenkins.plugins.utils.ConfigUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>Endpoint for a specific plugin</p>
@@ -25,8 +36,12 @@ public class PluginEndpoint {
 
   private Logger logger = LoggerFactory.getLogger(PluginEndpoint.class);
 
+  // Bounded so a slow Jenkins Wiki can't pile up threads, requests are answered with 503 once the queue is full
+  private static final ExecutorService wikiExecutor = createWikiExecutor();
+  private static final long WIKI_CONTENT_RETRY_AFTER_SECONDS = 5;
+
   @Inject
-  private DatastoreService datastoreService;
+  private AsyncDatastoreService asyncDatastoreService;
 
   @Inject
   private WikiService wikiService;
@@ -34,26 +49,68 @@ public class PluginEndpoint {
   /**
    * <p>Get a plugin by name</p>
    *
+   * <p>Wiki content is fetched on a separate pool since <code>WikiService</code> blocks on the Jenkins Wiki. When
+   * that pool is saturated the request is answered with 503 and <code>Retry-After</code>, so clients can tell it apart
+   * from a plugin without wiki content.</p>
+   *
    * @param name The plugin to retrieve
-   * @return Matching plugin
+   * @param resolution How much installation history to return
+   * @param asyncResponse Resumed with the matching plugin
    */
   @GET
-  public Plugin getPlugin(@PathParam("name") String name) {
+  public void getPlugin(@PathParam("name") String name,
+                        @DefaultValue("full") @QueryParam("resolution") Resolution resolution,
+                        @Suspended AsyncResponse asyncResponse) {
+    final CompletionStage<Plugin> plugin = asyncDatastoreService.getPluginAsync(name, resolution)
+      .thenCompose(this::withWikiContent);
+    AsyncResponses.resume(asyncResponse, plugin, logger, "Problem getting plugin " + name);
+  }
+
+  private CompletionStage<Plugin> withWikiContent(Plugin plugin) {
+    if (plugin == null || plugin.getWiki() == null) {
+      return CompletableFuture.completedFuture(plugin);
+    }
     try {
-      final Plugin plugin = datastoreService.getPlugin(name);
-      if (plugin != null) {
-        if (plugin.getWiki() != null) {
-          final String content = wikiService.getWikiContent(plugin.getWiki().getUrl());
-          plugin.getWiki().setContent(content);
-        }
+      return CompletableFuture.supplyAsync(() -> {
+        final String content = wikiService.getWikiContent(plugin.getWiki().getUrl());
+        plugin.getWiki().setContent(content);
         return plugin;
-      } else {
-        throw new WebApplicationException(Response.Status.NOT_FOUND);
-      }
-    } catch (ServiceException e) {
-      logger.error("Problem getting plugin " + name, e);
-      throw new WebApplicationException(Response.Status.INTERNAL_SERVER_ERROR);
+      }, wikiExecutor);
+    } catch (RejectedExecutionException e) {
+      logger.warn(String.format("Too many wiki content requests, rejecting request for plugin %s", plugin.getName()));
+      final CompletableFuture<Plugin> rejected = new CompletableFuture<>();
+      rejected.completeExceptionally(new ServiceUnavailableException(WIKI_CONTENT_RETRY_AFTER_SECONDS));
+      return rejected;
+    }
+  }
+
+  private static ExecutorService createWikiExecutor() {
+    final int threads = ConfigUtils.getInt("WIKI_CONTENT_THREADS", "wiki.content.threads", 16);
+    final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+      new ArrayBlockingQueue<>(ConfigUtils.getInt("WIKI_CONTENT_QUEUE_SIZE", "wiki.content.queue.size", 100)),
+      new ThreadFactoryBuilder().setNameFormat("wiki-content-%d").setDaemon(true).build(),
+      new ThreadPoolExecutor.AbortPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * <p>Get the security warnings of a plugin and whether they affect a version</p>
+   *
+   * @param name The plugin to check
+   * @param version The version to check
+   * @param asyncResponse Resumed with the security warnings of the plugin with <code>active</code> set for the ones
+   *                      affecting <code>version</code>
+   */
+  @Path("/securityWarnings")
+  @GET
+  public void getSecurityWarnings(@PathParam("name") String name, @QueryParam("version") String version,
+                                  @Suspended AsyncResponse asyncResponse) {
+    if (StringUtils.isBlank(version)) {
+      throw new WebApplicationException(Response.Status.BAD_REQUEST);
     }
+    AsyncResponses.resume(asyncResponse, asyncDatastoreService.getSecurityWarningsAsync(name, version), logger,
+      "Problem getting security warnings for " + name);
   }
 
 }
@@ -1,19 +1,22 @@
 package io.jenkins.plugins.endpoints;
 
-import io.jenkins.plugins.models.Plugins;
-import io.jenkins.plugins.services.DatastoreService;
+import io.jenkins.plugins.services.AsyncDatastoreService;
+import io.jenkins.plugins.services.Cursor;
+import io.jenkins.plugins.services.Fields;
+import io.jenkins.plugins.services.Resolution;
 import io.jenkins.plugins.services.SearchOptions;
-import io.jenkins.plugins.services.ServiceException;
 import io.jenkins.plugins.services.SortBy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.ws.rs.*;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
-import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
 
 /**
  * <p>Endpoint for searching for plugins</p>
@@ -25,7 +28,7 @@ public class PluginsEndpoint {
   private final Logger logger = LoggerFactory.getLogger(PluginsEndpoint.class);
 
   @Inject
-  private DatastoreService datastoreService;
+  private AsyncDatastoreService datastoreService;
 
   /**
    * <p>Support searching for plugins via the <code>q</code> or query string, and filtering options</p>.
@@ -38,10 +41,15 @@ public class PluginsEndpoint {
    * @param core Filter matches by core Jenkins version
    * @param limit How many results to return per page
    * @param page What page of the result set to return
-   * @return Matching plugins
+   * @param cursor Continue after the position returned as <code>cursor</code> by the previous page instead of
+   *               using <code>page</code>
+   * @param resolution How much installation history to return for each plugin
+   * @param fields Properties or presets to return for each plugin, all properties if empty
+   * @param exclude Properties to leave out for each plugin
+   * @param asyncResponse Resumed with the matching plugins
    */
   @GET
-  public Plugins search(
+  public void search(
       @QueryParam("q") String query,
       @DefaultValue("relevance") @QueryParam("sort") SortBy sortBy,
       @QueryParam("categories") Set<String> categories,
@@ -49,46 +57,57 @@ public class PluginsEndpoint {
       @QueryParam("maintainers") Set<String> maintainers,
       @QueryParam("core")String core,
       @DefaultValue("50") @QueryParam("limit") int limit,
-      @DefaultValue("1") @QueryParam("page") int page) {
+      @DefaultValue("1") @QueryParam("page") int page,
+      @QueryParam("cursor") String cursor,
+      @DefaultValue("full") @QueryParam("resolution") Resolution resolution,
+      @QueryParam("fields") Set<String> fields,
+      @QueryParam("exclude") Set<String> exclude,
+      @Suspended AsyncResponse asyncResponse) {
+    final SearchOptions searchOptions;
     try {
-      return datastoreService.search(
-        new SearchOptions.Builder()
-          .withQuery(query)
-          .withSortBy(sortBy)
-          .withCategories(categories)
-          .withLabels(labels)
-          .withMaintainers(maintainers)
-          .withCore(core)
-          .withLimit(limit)
-          .withPage(page)
-          .build()
-      );
-    } catch (ServiceException e) {
-      logger.error("Problem getting plugins", e);
-      throw new WebApplicationException(Response.Status.INTERNAL_SERVER_ERROR);
+      searchOptions = new SearchOptions.Builder()
+        .withQuery(query)
+        .withSortBy(sortBy)
+        .withCategories(categories)
+        .withLabels(labels)
+        .withMaintainers(maintainers)
+        .withCore(core)
+        .withLimit(limit)
+        .withPage(page)
+        .withCursor(Cursor.parse(cursor))
+        .withResolution(resolution)
+        .withFields(Fields.parse(fields, exclude))
+        .build();
+    } catch (IllegalArgumentException e) {
+      throw new WebApplicationException(e.getMessage(), Response.Status.BAD_REQUEST);
     }
+    resume(asyncResponse, searchOptions, "Problem getting plugins");
   }
 
   /**
    * <p>Return the latest installed plugins</p>
    *
    * @param limit The last "limit" plugins
-   * @return Matching plugins
+   * @param resolution How much installation history to return for each plugin
+   * @param fields Properties or presets to return for each plugin, all properties if empty
+   * @param exclude Properties to leave out for each plugin
+   * @param asyncResponse Resumed with the matching plugins
    */
   @Path("/installed")
   @GET
-  public Plugins getMostInstalled(@DefaultValue("10") @QueryParam("limit") int limit) {
-    try {
-      return datastoreService.search(
-        new SearchOptions.Builder()
-          .withSortBy(SortBy.INSTALLED)
-          .withLimit(limit)
-          .build()
-      );
-    } catch (ServiceException e) {
-      logger.error("Problem getting most installed", e);
-      throw new WebApplicationException(Response.Status.INTERNAL_SERVER_ERROR);
-    }
+  public void getMostInstalled(@DefaultValue("10") @QueryParam("limit") int limit,
+      @DefaultValue("full") @QueryParam("resolution") Resolution resolution,
+      @QueryParam("fields") Set<String> fields,
+      @QueryParam("exclude") Set<String> exclude,
+      @Suspended AsyncResponse asyncResponse) {
+    resume(asyncResponse,
+      new SearchOptions.Builder()
+        .withSortBy(SortBy.INSTALLED)
+        .withLimit(limit)
+        .withResolution(resolution)
+        .withFields(parseFields(fields, exclude))
+        .build(),
+      "Problem getting most installed");
   }
 
   /**
@@ -97,65 +116,96 @@ public class PluginsEndpoint {
    * <p>This is plugins created in the last 30 days</p>
    *
    * @param limit The last "limit" plugins
-   * @return Matching plugins
+   * @param resolution How much installation history to return for each plugin
+   * @param fields Properties or presets to return for each plugin, all properties if empty
+   * @param exclude Properties to leave out for each plugin
+   * @param asyncResponse Resumed with the matching plugins
    */
   @Path("/new")
   @GET
-  public Plugins getNew(@DefaultValue("10") @QueryParam("limit") int limit) {
-    try {
-      return datastoreService.search(
-        new SearchOptions.Builder()
-          .withSortBy(SortBy.FIRST_RELEASE)
-          .withLimit(limit)
-          .build()
-      );
-    } catch (ServiceException e) {
-      logger.error("Problem getting trend", e);
-      throw new WebApplicationException(Response.Status.INTERNAL_SERVER_ERROR);
-    }
+  public void getNew(@DefaultValue("10") @QueryParam("limit") int limit,
+      @DefaultValue("full") @QueryParam("resolution") Resolution resolution,
+      @QueryParam("fields") Set<String> fields,
+      @QueryParam("exclude") Set<String> exclude,
+      @Suspended AsyncResponse asyncResponse) {
+    resume(asyncResponse,
+      new SearchOptions.Builder()
+        .withSortBy(SortBy.FIRST_RELEASE)
+        .withLimit(limit)
+        .withResolution(resolution)
+        .withFields(parseFields(fields, exclude))
+        .build(),
+      "Problem getting trend");
   }
 
   /**
    * <p>Return the latest updated plugins</p>
    *
    * @param limit The last "limit" plugins
-   * @return Matching plugins
+   * @param resolution How much installation history to return for each plugin
+   * @param fields Properties or presets to return for each plugin, all properties if empty
+   * @param exclude Properties to leave out for each plugin
+   * @param asyncResponse Resumed with the matching plugins
    */
   @Path("/updated")
   @GET
-  public Plugins getRecentlyUpdated(@DefaultValue("10") @QueryParam("limit") int limit) {
-    try {
-      return datastoreService.search(
-        new SearchOptions.Builder()
-          .withSortBy(SortBy.UPDATED)
-          .withLimit(limit)
-          .build()
-      );
-    } catch (ServiceException e) {
-      logger.error("Problem getting recently updated", e);
-      throw new WebApplicationException(Response.Status.INTERNAL_SERVER_ERROR);
-    }
+  public void getRecentlyUpdated(@DefaultValue("10") @QueryParam("limit") int limit,
+      @DefaultValue("full") @QueryParam("resolution") Resolution resolution,
+      @QueryParam("fields") Set<String> fields,
+      @QueryParam("exclude") Set<String> exclude,
+      @Suspended AsyncResponse asyncResponse) {
+    resume(asyncResponse,
+      new SearchOptions.Builder()
+        .withSortBy(SortBy.UPDATED)
+        .withLimit(limit)
+        .withResolution(resolution)
+        .withFields(parseFields(fields, exclude))
+        .build(),
+      "Problem getting recently updated");
   }
 
   /**
    * <p>Return the latest trending plugins</p>
    *
    * @param limit The last "limit" plugins
-   * @return Matching plugins
+   * @param resolution How much installation history to return for each plugin
+   * @param fields Properties or presets to return for each plugin, all properties if empty
+   * @param exclude Properties to leave out for each plugin
+   * @param asyncResponse Resumed with the matching plugins
    */
   @Path("/trend")
   @GET
-  public Plugins getTrend(@DefaultValue("10") @QueryParam("limit") int limit) {
+  public void getTrend(@DefaultValue("10") @QueryParam("limit") int limit,
+      @DefaultValue("full") @QueryParam("resolution") Resolution resolution,
+      @QueryParam("fields") Set<String> fields,
+      @QueryParam("exclude") Set<String> exclude,
+      @Suspended AsyncResponse asyncResponse) {
+    resume(asyncResponse,
+      new SearchOptions.Builder()
+        .withSortBy(SortBy.TREND)
+        .withLimit(limit)
+        .withResolution(resolution)
+        .withFields(parseFields(fields, exclude))
+        .build(),
+      "Problem getting trend");
+  }
+
+  /**
+   * <p>Resume <code>asyncResponse</code> with the search results, with only the selected properties of each plugin if
+   * <code>fields</code> or <code>exclude</code> were given</p>
+   */
+  private void resume(AsyncResponse asyncResponse, SearchOptions searchOptions, String message) {
+    final Fields fields = searchOptions.getFields();
+    final CompletionStage<?> plugins = fields.isAll() ? datastoreService.searchAsync(searchOptions)
+      : datastoreService.searchAsync(searchOptions).thenApply(fields::project);
+    AsyncResponses.resume(asyncResponse, plugins, logger, message);
+  }
+
+  private static Fields parseFields(Set<String> fields, Set<String> exclude) {
     try {
-      return datastoreService.search(
-        new SearchOptions.Builder()
-          .withSortBy(SortBy.TREND)
-          .withLimit(limit)
-          .build()
-      );
-    } catch (ServiceException e) {
-      logger.error("Problem getting trend", e);
-      throw new WebApplicationException(Response.Status.INTERNAL_SERVER_ERROR);
+      return Fields.parse(fields, exclude);
+    } catch (IllegalArgumentException e) {
+      throw new WebApplicationException(e.getMessage(), Response.Status.BAD_REQUEST);
     }
   }
 
@@ -0,0 +1,71 @@
+package io.jenkins.plugins.generate;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.TreeSet;
+
+/**
+ * <p>Accumulates the inputs a plugin was generated from into a single SHA-256 hash</p>
+ *
+ * <p>Two plugins with the same fingerprint were generated from the same inputs, so the previous result can be reused
+ * instead of being parsed again.</p>
+ *
+ * @see PluginDataParser#fingerprint(JSONObject, Fingerprint)
+ */
+public class Fingerprint {
+
+  private final Hasher hasher = Hashing.sha256().newHasher();
+
+  public Fingerprint putString(String value) {
+    if (value == null) {
+      hasher.putByte((byte) 0);
+    } else {
+      hasher.putByte((byte) 1).putInt(value.length()).putString(value, StandardCharsets.UTF_8);
+    }
+    return this;
+  }
+
+  public Fingerprint putInt(int value) {
+    hasher.putInt(value);
+    return this;
+  }
+
+  public Fingerprint putBytes(byte[] value) {
+    hasher.putInt(value.length).putBytes(value);
+    return this;
+  }
+
+  /**
+   * <p>Add a <code>JSONObject</code>, <code>JSONArray</code> or JSON value. Object keys are sorted so the result
+   * doesn't depend on <code>HashMap</code> ordering.</p>
+   */
+  public Fingerprint putJson(Object value) {
+    if (value instanceof JSONObject) {
+      final JSONObject json = (JSONObject) value;
+      hasher.putChar('{');
+      for (String key : new TreeSet<>(json.keySet())) {
+        putString(key);
+        putJson(json.get(key));
+      }
+      hasher.putChar('}');
+    } else if (value instanceof JSONArray) {
+      hasher.putChar('[');
+      for (Object element : (JSONArray) value) {
+        putJson(element);
+      }
+      hasher.putChar(']');
+    } else {
+      putString(value == null || JSONObject.NULL.equals(value) ? null : value.toString());
+    }
+    return this;
+  }
+
+  public String hash() {
+    return hasher.hash().toString();
+  }
+
+}
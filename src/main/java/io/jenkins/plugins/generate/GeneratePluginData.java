@@ -1,32 +1,55 @@
 package io.jenkins.plugins.generate;
 
-import io.jenkins.plugins.commons.JsonObjectMapper;
+import io.jenkins.plugins.commons.DataFormat;
 import io.jenkins.plugins.generate.parsers.*;
 import io.jenkins.plugins.models.*;
+import io.jenkins.plugins.utils.ConfigUtils;
 import io.jenkins.plugins.utils.VersionUtils;
-import org.apache.http.HttpEntity;
-import org.apache.http.StatusLine;
-import org.apache.http.client.ClientProtocolException;
-import org.apache.http.client.ResponseHandler;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.util.EntityUtils;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.zip.GZIPOutputStream;
 
 /**
  * <p>Responsible for generating plugin data that is indexed inside Elasticsearch.</p>
  *
  * <p>Most of the work happens inside each <code>PluginDataParser</code></p>
+ *
+ * <p>Plugins are parsed on a <code>ForkJoinPool</code> whose size is given by the <code>GENERATE_PARALLELISM</code>
+ * environment variable or <code>generate.parallelism</code> system property, defaulting to the number of available
+ * processors. A parallelism of 1 parses sequentially. Either way plugins are emitted in the order they appear in the
+ * update center so the generated data doesn't depend on thread scheduling.</p>
+ *
+ * <p>When <code>GENERATE_PREVIOUS_DATA</code> or <code>generate.previous.data</code> points at a previously generated
+ * data file, generation is incremental. Every plugin's inputs are fingerprinted, and a plugin whose fingerprint matches
+ * the previous run is copied over instead of being parsed again.</p>
+ *
+ * <p>The update center, release history, documentation URLs and statistics are fetched concurrently before parsing
+ * starts, so the time spent waiting on upstream sources is that of the slowest one.</p>
+ *
+ * <p>The data file is written as gzip'd JSON unless <code>GENERATE_DATA_FORMAT</code> or
+ * <code>generate.data.format</code> is <code>smile</code>, see <code>DataFormat</code>.</p>
+ *
+ * <p>The order of the parsers only matters for fingerprints. <code>PluginDataParserGraph</code> orders them by the
+ * fields they read and write, and runs parsers that don't depend on each other concurrently.</p>
  */
 public class GeneratePluginData {
 
@@ -40,66 +63,259 @@ public class GeneratePluginData {
   }
 
   public void generate() {
-    final JSONObject updateCenterJson = getUpdateCenterJson();
-    final List<PluginDataParser> parsers = Arrays.asList(
-      new RootPluginDataParser(),
-      new LabelsPluginDataParser(),
-      new CategoriesPluginDataParser(),
-      new DependenciesPluginDataParser(updateCenterJson),
-      new FirstReleasePluginDataParser(),
-      new MaintainersPluginDataParser(),
-      new ScmPluginDataParser(),
-      new SecurityWarningsPluginDataParser(updateCenterJson),
-      new StatsPluginDataParser(),
-      new WikiPluginDataParser()
-    );
-    final JSONObject pluginsJson = updateCenterJson.getJSONObject("plugins");
-    final List<Plugin> plugins = pluginsJson.keySet().stream()
-      .map(pluginsJson::getJSONObject)
-      .map(pluginJson -> {
-        final Plugin plugin = new Plugin();
-        parsers.forEach(parser -> parser.parse(pluginJson, plugin));
-        return plugin;
-      })
-      .collect(Collectors.toList());
-    writePluginsToFile(plugins);
+    // Upstream sources are independent, so fetch them all at once and wait for the slowest
+    final ExecutorService executor = Executors.newFixedThreadPool(Source.values().length);
+    final long start = System.nanoTime();
+    try {
+      final CompletableFuture<UpdateCenter> updateCenterFuture = prefetch(Source.UPDATE_CENTER, () -> UpdateCenter.download(UPDATE_CENTER_JSON), executor);
+      final CompletableFuture<Map<String, LocalDateTime>> firstReleasesFuture = prefetch(Source.RELEASE_HISTORY, FirstReleasePluginDataParser::fetchGavToFirstReleaseMap, executor);
+      final CompletableFuture<Map<String, String>> documentationUrlsFuture = prefetch(Source.DOCUMENTATION_URLS, WikiPluginDataParser::fetchPluginToDocumentationUrlMap, executor);
+      final CompletableFuture<StatisticsIndex> statisticsFuture = prefetch(Source.STATISTICS, () -> StatisticsIndex.load(StatisticsMirror.update()), executor);
+      try (final UpdateCenter updateCenter = await(updateCenterFuture, Source.UPDATE_CENTER, null, start)) {
+        final List<PluginDataParser> parsers = Arrays.asList(
+          new RootPluginDataParser(),
+          new LabelsPluginDataParser(),
+          new CategoriesPluginDataParser(),
+          new DependenciesPluginDataParser(updateCenter.getPluginTitles()),
+          new FirstReleasePluginDataParser(await(firstReleasesFuture, Source.RELEASE_HISTORY, Collections.emptyMap(), start)),
+          new MaintainersPluginDataParser(),
+          new ScmPluginDataParser(),
+          new SecurityWarningsPluginDataParser(updateCenter.getWarnings()),
+          new StatsPluginDataParser(await(statisticsFuture, Source.STATISTICS, null, start)),
+          new WikiPluginDataParser(await(documentationUrlsFuture, Source.DOCUMENTATION_URLS, Collections.emptyMap(), start))
+        );
+        writePlugins(updateCenter, parsers);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
   }
 
-  private JSONObject getUpdateCenterJson() {
-    final ResponseHandler<JSONObject> handler = httpResponse -> {
-      final StatusLine status = httpResponse.getStatusLine();
-      if (status.getStatusCode() == 200) {
-        final HttpEntity entity = httpResponse.getEntity();
-        final String content = EntityUtils.toString(entity, StandardCharsets.UTF_8);
-        try {
-          return new JSONObject(content);
-        } catch (Exception e) {
-          logger.error("Update center returned invalid JSON", e);
-          throw new ClientProtocolException("Update center returned invalid JSON");
-        }
-      } else {
-        throw new ClientProtocolException(String.format("Unexpected response from update center - %s", status.toString()));
+  private <T> CompletableFuture<T> prefetch(Source source, Supplier<T> supplier, Executor executor) {
+    return CompletableFuture.supplyAsync(() -> {
+      final long start = System.nanoTime();
+      final T result = supplier.get();
+      logger.info(String.format("Fetched %s in %d ms", source.description, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+      return result;
+    }, executor);
+  }
+
+  /**
+   * <p>Wait for a prefetched source</p>
+   *
+   * <p>The timeout of each source counts from when all of them were prefetched, not from when it's waited for, so
+   * waiting for one source doesn't extend the time the others get.</p>
+   *
+   * @param fallback Used if the source times out, null to fail instead
+   * @param start <code>System.nanoTime()</code> when the sources were prefetched
+   */
+  private <T> T await(CompletableFuture<T> future, Source source, T fallback, long start) {
+    final int timeout = source.getTimeout();
+    final long remaining = start + TimeUnit.SECONDS.toNanos(timeout) - System.nanoTime();
+    try {
+      return future.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      // Doesn't stop the fetch itself, the socket timeouts of the HTTP and Git clients bound how long it can stall
+      future.cancel(true);
+      if (fallback != null) {
+        logger.error(String.format("Timed out after %d seconds fetching %s, continuing without it", timeout, source.description));
+        return fallback;
+      }
+      logger.error(String.format("Timed out after %d seconds fetching %s", timeout, source.description));
+      throw new RuntimeException(String.format("Timed out fetching %s", source.description), e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(String.format("Interrupted fetching %s", source.description), e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(String.format("Problem fetching %s", source.description), e.getCause());
+    }
+  }
+
+  private void parsePlugins(UpdateCenter updateCenter, List<PluginDataParser> parsers, PreviousPluginData previous,
+                            Consumer<ParsedPlugin> consumer) {
+    final int parallelism = ConfigUtils.getInt("GENERATE_PARALLELISM", "generate.parallelism", Runtime.getRuntime().availableProcessors());
+    final ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    final Executor executor = pool != null ? pool : Runnable::run;
+    final LongAdder parseTime = new LongAdder();
+    final PluginDataParserGraph graph = new PluginDataParserGraph(parsers.stream()
+      .map(parser -> new TimedPluginDataParser(parser, parseTime))
+      .collect(Collectors.toList()));
+    // Plugins are handed to the pool as soon as they are read. Completing them in submission order keeps the output
+    // deterministic, and the window bounds how many plugins are held in memory at once.
+    final int window = parallelism * 4;
+    final Deque<CompletableFuture<ParsedPlugin>> inFlight = new ArrayDeque<>();
+    final AtomicInteger count = new AtomicInteger();
+    final AtomicInteger reused = new AtomicInteger();
+    final Consumer<CompletableFuture<ParsedPlugin>> complete = future -> {
+      final ParsedPlugin parsed = future.join();
+      consumer.accept(parsed);
+      count.incrementAndGet();
+      if (parsed.reused) {
+        reused.incrementAndGet();
       }
     };
-    logger.info("Begin downloading from update center");
-    try (final CloseableHttpClient httpClient = HttpClients.createDefault()) {
-      return httpClient.execute(new HttpGet(UPDATE_CENTER_JSON), handler);
-    } catch (Exception e) {
-      logger.error("Problem communicating with update center", e);
-      throw new RuntimeException("Problem communicating with update center", e);
+    logger.info(String.format("Parsing plugins using parallelism %d", parallelism));
+    final long start = System.nanoTime();
+    try {
+      updateCenter.forEachPlugin(pluginJson -> {
+        inFlight.add(CompletableFuture.supplyAsync(() -> fingerprint(pluginJson, parsers, parseTime), executor)
+          .thenCompose(fingerprint -> parsePlugin(pluginJson, fingerprint, graph, previous, executor)));
+        while (inFlight.size() > window) {
+          complete.accept(inFlight.remove());
+        }
+      });
+      while (!inFlight.isEmpty()) {
+        complete.accept(inFlight.remove());
+      }
+    } catch (CompletionException e) {
+      logger.error("Problem parsing plugins", e.getCause());
+      throw new RuntimeException("Problem parsing plugins", e.getCause());
+    } finally {
+      if (pool != null) {
+        pool.shutdown();
+      }
     }
+    final long elapsed = Math.max(System.nanoTime() - start, 1);
+    logger.info(String.format("Parsed %d plugins in %d ms (%d ms of parser time, %.2fx speedup over sequential)",
+      count.get(), TimeUnit.NANOSECONDS.toMillis(elapsed), TimeUnit.NANOSECONDS.toMillis(parseTime.sum()),
+      (double) parseTime.sum() / elapsed));
+    if (previous != null) {
+      logger.info(String.format("Reused %d unchanged plugins, reparsed %d", reused.get(), count.get() - reused.get()));
+    }
+  }
+
+  private String fingerprint(JSONObject pluginJson, List<PluginDataParser> parsers, LongAdder parseTime) {
+    final long start = System.nanoTime();
+    final Fingerprint fingerprint = new Fingerprint().putJson(pluginJson);
+    parsers.forEach(parser -> {
+      // Parsers that were added, removed or changed invalidate the plugins they produced
+      fingerprint.putString(parser.getClass().getName()).putInt(parser.version());
+      parser.fingerprint(pluginJson, fingerprint);
+    });
+    final String hash = fingerprint.hash();
+    parseTime.add(System.nanoTime() - start);
+    return hash;
   }
 
-  private void writePluginsToFile(List<Plugin> plugins) {
-    final File data = Paths.get(System.getProperty("user.dir"), "target", "plugins.json.gzip").toFile();
-    try(final Writer writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(data)), StandardCharsets.UTF_8))) {
-      final String mappingVersion = VersionUtils.getMappingVersion();
-      final String elasticsearchVersion = VersionUtils.getElasticsearchVersion();
-      JsonObjectMapper.getObjectMapper().writeValue(writer, new GeneratedPluginData(plugins, mappingVersion, elasticsearchVersion));
+  private CompletableFuture<ParsedPlugin> parsePlugin(JSONObject pluginJson, String fingerprint,
+                                                      PluginDataParserGraph graph, PreviousPluginData previous,
+                                                      Executor executor) {
+    final Plugin previousPlugin = previous != null ? previous.reuse(pluginJson.getString("name"), fingerprint) : null;
+    if (previousPlugin != null) {
+      return CompletableFuture.completedFuture(new ParsedPlugin(previousPlugin, fingerprint, true));
+    }
+    final Plugin plugin = new Plugin();
+    return graph.parse(pluginJson, plugin, executor).thenApply(ignored -> new ParsedPlugin(plugin, fingerprint, false));
+  }
+
+  private void writePlugins(UpdateCenter updateCenter, List<PluginDataParser> parsers) {
+    final DataFormat format = DataFormat.fromString(ConfigUtils.getString("GENERATE_DATA_FORMAT", "generate.data.format", DataFormat.JSON.name()));
+    final File data = Paths.get(System.getProperty("user.dir"), "target", format.getFileName()).toFile();
+    final String mappingVersion = VersionUtils.getMappingVersion();
+    final String elasticsearchVersion = VersionUtils.getElasticsearchVersion();
+    final String previousData = ConfigUtils.getString("GENERATE_PREVIOUS_DATA", "generate.previous.data", null);
+    try (final PreviousPluginData previous = previousData != null ? PreviousPluginData.read(new File(previousData)) : null;
+         final PluginDataWriter writer = new PluginDataWriter(data, format, mappingVersion, elasticsearchVersion)) {
+      parsePlugins(updateCenter, parsers, previous, parsed -> {
+        try {
+          writer.write(parsed.plugin, parsed.fingerprint);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      writer.finish();
+      logger.info(String.format("Wrote %d plugins to %s", writer.getCount(), data));
     } catch (Exception e) {
       logger.error("Problem writing plugin data to file", e);
       throw new RuntimeException(e);
     }
   }
 
+  /**
+   * <p>Upstream sources prefetched before parsing</p>
+   *
+   * <p>Each has its own timeout in seconds, configurable with <code>GENERATE_&lt;SOURCE&gt;_TIMEOUT</code> or
+   * <code>generate.&lt;source&gt;.timeout</code>, e.g. <code>GENERATE_STATISTICS_TIMEOUT</code>.</p>
+   */
+  private enum Source {
+
+    UPDATE_CENTER("update center", 300),
+    RELEASE_HISTORY("release history", 120),
+    DOCUMENTATION_URLS("documentation URLs", 120),
+    STATISTICS("statistics", 900);
+
+    private final String description;
+    private final int defaultTimeout;
+
+    Source(String description, int defaultTimeout) {
+      this.description = description;
+      this.defaultTimeout = defaultTimeout;
+    }
+
+    private int getTimeout() {
+      return ConfigUtils.getInt(String.format("GENERATE_%s_TIMEOUT", name()),
+        String.format("generate.%s.timeout", name().toLowerCase().replace('_', '.')), defaultTimeout);
+    }
+
+  }
+
+  /**
+   * <p>Adds the time spent in <code>parse</code> to <code>parseTime</code></p>
+   */
+  private static class TimedPluginDataParser implements PluginDataParser {
+
+    private final PluginDataParser parser;
+    private final LongAdder parseTime;
+
+    private TimedPluginDataParser(PluginDataParser parser, LongAdder parseTime) {
+      this.parser = parser;
+      this.parseTime = parseTime;
+    }
+
+    @Override
+    public void parse(JSONObject pluginJson, Plugin plugin) {
+      final long start = System.nanoTime();
+      try {
+        parser.parse(pluginJson, plugin);
+      } finally {
+        parseTime.add(System.nanoTime() - start);
+      }
+    }
+
+    @Override
+    public void fingerprint(JSONObject pluginJson, Fingerprint fingerprint) {
+      parser.fingerprint(pluginJson, fingerprint);
+    }
+
+    @Override
+    public int version() {
+      return parser.version();
+    }
+
+    @Override
+    public Set<String> reads() {
+      return parser.reads();
+    }
+
+    @Override
+    public Set<String> writes() {
+      return parser.writes();
+    }
+
+  }
+
+  private static class ParsedPlugin {
+
+    private final Plugin plugin;
+    private final String fingerprint;
+    private final boolean reused;
+
+    private ParsedPlugin(Plugin plugin, String fingerprint, boolean reused) {
+      this.plugin = plugin;
+      this.fingerprint = fingerprint;
+      this.reused = reused;
+    }
+
+  }
+
 }
@@ -3,8 +3,17 @@ package io.jenkins.plugins.generate;
 import io.jenkins.plugins.models.Plugin;
 import org.json.JSONObject;
 
+import java.util.Collections;
+import java.util.Set;
+
 /**
  * <p>Contract for parsing pieces of <code>pluginJson</code> and applying them to <code>plugin</code></p>
+ *
+ * <p>Each parser declares which fields of <code>Plugin</code> it reads and writes, using the names they are serialized
+ * with. <code>PluginDataParserGraph</code> uses these to order parsers and to run independent parsers of the same
+ * plugin concurrently, so a parser must only touch the fields it declares.</p>
+ *
+ * @see PluginDataParserGraph
  */
 public interface PluginDataParser {
 
@@ -16,4 +25,44 @@ public interface PluginDataParser {
      */
   void parse(JSONObject pluginJson, Plugin plugin);
 
+  /**
+   * <p>Add everything <code>parse</code> depends on besides <code>pluginJson</code> to <code>fingerprint</code></p>
+   *
+   * <p>Parsers that only read <code>pluginJson</code> don't need to implement this, it's already part of the
+   * fingerprint.</p>
+   *
+   * @param pluginJson JSON representing a plugin
+   * @param fingerprint Fingerprint of the inputs for <code>pluginJson</code>
+   */
+  default void fingerprint(JSONObject pluginJson, Fingerprint fingerprint) {
+  }
+
+  /**
+   * <p>Version of what <code>parse</code> produces, part of every fingerprint</p>
+   *
+   * <p>Bump it whenever a change to the parser changes its output for the same inputs, otherwise incremental
+   * generation keeps reusing plugins parsed by the previous code.</p>
+   *
+   * @return version of the parser
+   */
+  default int version() {
+    return 1;
+  }
+
+  /**
+   * <p>Fields of <code>plugin</code> that <code>parse</code> reads. The parser runs after every parser writing them.</p>
+   *
+   * @return field names, empty if <code>parse</code> only reads <code>pluginJson</code>
+   */
+  default Set<String> reads() {
+    return Collections.emptySet();
+  }
+
+  /**
+   * <p>Fields of <code>plugin</code> that <code>parse</code> sets</p>
+   *
+   * @return field names
+   */
+  Set<String> writes();
+
 }
@@ -0,0 +1,152 @@
+package io.jenkins.plugins.generate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import io.jenkins.plugins.commons.JsonObjectMapper;
+import io.jenkins.plugins.models.Plugin;
+import org.json.JSONObject;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+/**
+ * <p>Schedules <code>PluginDataParser</code>s by the <code>Plugin</code> fields they read and write</p>
+ *
+ * <p>A parser depends on every parser writing a field it reads. Parsers writing the same field keep the order they
+ * were given in so the last one wins as before. Parsers without a path between them in the resulting DAG run
+ * concurrently for the same plugin, so adding an expensive parser doesn't lengthen the pipeline unless something reads
+ * what it writes.</p>
+ */
+public class PluginDataParserGraph {
+
+  private final List<PluginDataParser> parsers;
+  private final int[][] dependencies;
+
+  /**
+   * @param parsers Parsers in any order that respects write conflicts
+   * @throws IllegalArgumentException if a parser declares an unknown field or the dependencies have a cycle
+   */
+  public PluginDataParserGraph(List<PluginDataParser> parsers) {
+    final Set<String> fields = getPluginFields();
+    final int size = parsers.size();
+    final List<Set<Integer>> edges = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      final PluginDataParser parser = parsers.get(i);
+      final Set<String> unknown = new TreeSet<>(parser.reads());
+      unknown.addAll(parser.writes());
+      unknown.removeAll(fields);
+      if (!unknown.isEmpty()) {
+        throw new IllegalArgumentException(String.format("%s declares unknown fields %s", name(parser), unknown));
+      }
+      edges.add(new HashSet<>());
+    }
+    for (int i = 0; i < size; i++) {
+      for (int j = 0; j < size; j++) {
+        if (i == j) {
+          continue;
+        }
+        final Set<String> writes = parsers.get(j).writes();
+        final boolean reads = !Collections.disjoint(parsers.get(i).reads(), writes);
+        final boolean overwrites = j < i && !Collections.disjoint(parsers.get(i).writes(), writes);
+        if (reads || overwrites) {
+          edges.get(i).add(j);
+        }
+      }
+    }
+    // Kahn's algorithm, taking the lowest index first so the order is stable
+    final int[] remaining = new int[size];
+    final List<Set<Integer>> dependents = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      dependents.add(new HashSet<>());
+    }
+    for (int i = 0; i < size; i++) {
+      remaining[i] = edges.get(i).size();
+      for (int j : edges.get(i)) {
+        dependents.get(j).add(i);
+      }
+    }
+    final PriorityQueue<Integer> ready = new PriorityQueue<>();
+    for (int i = 0; i < size; i++) {
+      if (remaining[i] == 0) {
+        ready.add(i);
+      }
+    }
+    final List<Integer> order = new ArrayList<>(size);
+    while (!ready.isEmpty()) {
+      final int i = ready.remove();
+      order.add(i);
+      for (int dependent : dependents.get(i)) {
+        if (--remaining[dependent] == 0) {
+          ready.add(dependent);
+        }
+      }
+    }
+    if (order.size() != size) {
+      throw new IllegalArgumentException(String.format("Parsers have cyclic dependencies: %s", parsers.stream()
+        .filter(parser -> !order.contains(parsers.indexOf(parser)))
+        .map(PluginDataParserGraph::name)
+        .collect(Collectors.joining(", "))));
+    }
+    final int[] position = new int[size];
+    for (int i = 0; i < size; i++) {
+      position[order.get(i)] = i;
+    }
+    this.parsers = Collections.unmodifiableList(order.stream().map(parsers::get).collect(Collectors.toList()));
+    this.dependencies = new int[size][];
+    for (int i = 0; i < size; i++) {
+      dependencies[position[i]] = edges.get(i).stream().mapToInt(j -> position[j]).sorted().toArray();
+    }
+  }
+
+  /**
+   * @return parsers in an order that satisfies their dependencies
+   */
+  public List<PluginDataParser> getParsers() {
+    return parsers;
+  }
+
+  /**
+   * <p>Run every parser on <code>executor</code> as soon as the parsers it depends on have finished</p>
+   *
+   * <p>With a same thread executor the parsers run one after another in <code>getParsers</code> order.</p>
+   *
+   * @param pluginJson JSON representing a plugin
+   * @param plugin Plugin the parsers apply <code>pluginJson</code> to
+   * @param executor Runs the parsers
+   * @return completes once every parser has finished, exceptionally if one of them failed
+   */
+  public CompletableFuture<Void> parse(JSONObject pluginJson, Plugin plugin, Executor executor) {
+    final CompletableFuture<?>[] futures = new CompletableFuture<?>[parsers.size()];
+    for (int i = 0; i < futures.length; i++) {
+      final PluginDataParser parser = parsers.get(i);
+      final Runnable task = () -> parser.parse(pluginJson, plugin);
+      final int[] parserDependencies = dependencies[i];
+      if (parserDependencies.length == 0) {
+        futures[i] = CompletableFuture.runAsync(task, executor);
+      } else if (parserDependencies.length == 1) {
+        futures[i] = futures[parserDependencies[0]].thenRunAsync(task, executor);
+      } else {
+        final CompletableFuture<?>[] before = new CompletableFuture<?>[parserDependencies.length];
+        for (int j = 0; j < before.length; j++) {
+          before[j] = futures[parserDependencies[j]];
+        }
+        futures[i] = CompletableFuture.allOf(before).thenRunAsync(task, executor);
+      }
+    }
+    return CompletableFuture.allOf(futures);
+  }
+
+  private static Set<String> getPluginFields() {
+    final ObjectMapper mapper = JsonObjectMapper.getObjectMapper();
+    return mapper.getSerializationConfig().introspect(mapper.constructType(Plugin.class)).findProperties().stream()
+      .map(BeanPropertyDefinition::getName)
+      .collect(Collectors.toSet());
+  }
+
+  private static String name(PluginDataParser parser) {
+    return parser.getClass().getSimpleName();
+  }
+
+}
@@ -0,0 +1,108 @@
+package io.jenkins.plugins.generate;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.jenkins.plugins.commons.DataFormat;
+import io.jenkins.plugins.models.Plugin;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <p>Streams plugins into the gzip'd data file as they are parsed</p>
+ *
+ * <p>The file has the same layout as a serialized <code>GeneratedPluginData</code>, except that
+ * <code>createdAt</code>, <code>mappingVersion</code> and <code>elasticsearchVersion</code> are written before
+ * <code>plugins</code>. Each <code>Plugin</code> is serialized with a <code>SequenceWriter</code> and then released, so
+ * memory use doesn't depend on the number of plugins.</p>
+ *
+ * <p>The fingerprint of each plugin is written to <code>fingerprints</code> after <code>plugins</code> so the next run
+ * can reuse plugins whose inputs haven't changed.</p>
+ *
+ * <p>The document is encoded as JSON or Smile depending on <code>DataFormat</code>.</p>
+ *
+ * <p>Output goes to a temporary file next to <code>file</code> that only replaces it on <code>finish</code>, so a failed
+ * run never leaves a truncated data file behind.</p>
+ */
+public class PluginDataWriter implements Closeable {
+
+  // Same format as GeneratedPluginData.createdAt
+  private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SS'Z'", Locale.US);
+
+  private final File file;
+  private final File tempFile;
+  private final JsonGenerator generator;
+  private final SequenceWriter sequenceWriter;
+  private final Map<String, String> fingerprints;
+  private int count;
+  private boolean finished;
+
+  public PluginDataWriter(File file, DataFormat format, String mappingVersion, String elasticsearchVersion) throws IOException {
+    this.file = file;
+    this.tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+    this.generator = format.getObjectMapper().getFactory()
+      .createGenerator(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile))), JsonEncoding.UTF8);
+    this.fingerprints = new TreeMap<>();
+    this.count = 0;
+    this.finished = false;
+    generator.writeStartObject();
+    generator.writeStringField("createdAt", TIMESTAMP_FORMATTER.format(LocalDateTime.now()));
+    generator.writeStringField("mappingVersion", mappingVersion);
+    generator.writeStringField("elasticsearchVersion", elasticsearchVersion);
+    generator.writeArrayFieldStart("plugins");
+    this.sequenceWriter = format.getObjectMapper().writerFor(Plugin.class)
+      .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+      .writeValues(generator);
+  }
+
+  public void write(Plugin plugin, String fingerprint) throws IOException {
+    sequenceWriter.write(plugin);
+    fingerprints.put(plugin.getName(), fingerprint);
+    count++;
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * <p>Finish the document and move it into place</p>
+   */
+  public void finish() throws IOException {
+    sequenceWriter.close();
+    generator.writeEndArray();
+    generator.writeObjectField("fingerprints", fingerprints);
+    generator.writeEndObject();
+    generator.close();
+    Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    finished = true;
+  }
+
+  /**
+   * <p>Discard the partially written document unless <code>finish</code> has been called</p>
+   */
+  @Override
+  public void close() throws IOException {
+    if (!finished) {
+      try {
+        generator.close();
+      } finally {
+        Files.deleteIfExists(tempFile.toPath());
+      }
+    }
+  }
+
+}
@@ -0,0 +1,203 @@
+package io.jenkins.plugins.generate;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.jenkins.plugins.commons.DataFormat;
+import io.jenkins.plugins.models.Plugin;
+import io.jenkins.plugins.utils.VersionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * <p>Plugins from a previously generated data file together with the fingerprint of the inputs each one was generated
+ * from</p>
+ *
+ * <p>Used for incremental generation: a plugin whose fingerprint hasn't changed since the previous run is reused
+ * instead of being parsed again.</p>
+ *
+ * <p>Only the fingerprints are loaded up front. Plugins are streamed from the file as they are asked for, which is
+ * normally in the same update center order they were written in, so only plugins read ahead of the one asked for are
+ * held in memory.</p>
+ *
+ * @see Fingerprint
+ */
+public class PreviousPluginData implements Closeable {
+
+  private static final Logger logger = LoggerFactory.getLogger(PreviousPluginData.class);
+
+  private final File file;
+  // Fingerprints of the plugins that haven't been asked for yet
+  private final Map<String, String> fingerprints;
+  // Plugins read ahead of the one asked for
+  private final Map<String, Plugin> pending;
+  private String mappingVersion;
+  private String elasticsearchVersion;
+  private JsonParser plugins;
+
+  private PreviousPluginData(File file) {
+    this.file = file;
+    this.fingerprints = new HashMap<>();
+    this.pending = new HashMap<>();
+  }
+
+  /**
+   * <p>Read a data file written by <code>PluginDataWriter</code></p>
+   *
+   * @param file Previous data file, its format is detected from its name
+   * @return previous data, null if it can't be used for incremental generation
+   */
+  public static PreviousPluginData read(File file) {
+    if (!file.isFile()) {
+      logger.info(String.format("No previous plugin data at %s", file));
+      return null;
+    }
+    final PreviousPluginData data = new PreviousPluginData(file);
+    try (final JsonParser parser = data.createParser()) {
+      data.readMetadata(parser);
+    } catch (Exception e) {
+      logger.warn(String.format("Problem reading previous plugin data at %s", file), e);
+      return null;
+    }
+    if (data.fingerprints.isEmpty()) {
+      logger.info("Previous plugin data has no fingerprints");
+      return null;
+    }
+    if (!VersionUtils.getMappingVersion().equalsIgnoreCase(data.mappingVersion)
+      || !VersionUtils.getElasticsearchVersion().equalsIgnoreCase(data.elasticsearchVersion)) {
+      logger.info("Previous plugin data was generated for a different mapping or Elasticsearch version");
+      return null;
+    }
+    logger.info(String.format("Loaded fingerprints of %d previous plugins from %s", data.fingerprints.size(), file));
+    return data;
+  }
+
+  /**
+   * <p>Take the previous plugin if it was generated from the same inputs</p>
+   *
+   * <p>Each plugin can be asked for once.</p>
+   *
+   * @param name Plugin name
+   * @param fingerprint Fingerprint of the current inputs
+   * @return the previous plugin, null if the inputs changed or the plugin is new
+   */
+  public synchronized Plugin reuse(String name, String fingerprint) {
+    if (!fingerprint.equals(fingerprints.remove(name))) {
+      pending.remove(name);
+      return null;
+    }
+    Plugin plugin = pending.remove(name);
+    try {
+      while (plugin == null) {
+        final Plugin next = nextPlugin();
+        if (next == null) {
+          break;
+        } else if (next.getName().equals(name)) {
+          plugin = next;
+        } else if (fingerprints.containsKey(next.getName())) {
+          pending.put(next.getName(), next);
+        }
+      }
+    } catch (Exception e) {
+      logger.warn(String.format("Problem reading previous plugin data at %s, reparsing the remaining plugins", file), e);
+      closePlugins();
+      fingerprints.clear();
+      pending.clear();
+    }
+    return plugin;
+  }
+
+  @Override
+  public synchronized void close() {
+    closePlugins();
+    pending.clear();
+  }
+
+  /**
+   * @return the next plugin of the file, null after the last one
+   */
+  private Plugin nextPlugin() throws IOException {
+    if (plugins == null) {
+      if (fingerprints.isEmpty()) {
+        return null;
+      }
+      plugins = createParser();
+      if (!moveToPlugins(plugins)) {
+        throw new IOException("Previous plugin data has no plugins");
+      }
+    }
+    if (plugins.isClosed() || plugins.nextToken() != JsonToken.START_OBJECT) {
+      closePlugins();
+      return null;
+    }
+    return plugins.readValueAs(Plugin.class);
+  }
+
+  private void closePlugins() {
+    if (plugins != null) {
+      try {
+        plugins.close();
+      } catch (IOException e) {
+        logger.warn("Problem closing previous plugin data", e);
+      }
+      // Keep a closed parser so the file isn't opened again
+    }
+  }
+
+  private JsonParser createParser() throws IOException {
+    return DataFormat.detect(null, file.getName()).getObjectMapper().getFactory()
+      .createParser(new GZIPInputStream(new BufferedInputStream(new FileInputStream(file))));
+  }
+
+  private boolean moveToPlugins(JsonParser parser) throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new IOException("Expected plugin data to be a JSON object");
+    }
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String field = parser.getCurrentName();
+      parser.nextToken();
+      if (field.equals("plugins")) {
+        return true;
+      }
+      parser.skipChildren();
+    }
+    return false;
+  }
+
+  private void readMetadata(JsonParser parser) throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new IOException("Expected plugin data to be a JSON object");
+    }
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String field = parser.getCurrentName();
+      parser.nextToken();
+      switch (field) {
+        case "fingerprints":
+          while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            fingerprints.put(name, parser.nextTextValue());
+          }
+          break;
+        case "mappingVersion":
+          mappingVersion = parser.getValueAsString();
+          break;
+        case "elasticsearchVersion":
+          elasticsearchVersion = parser.getValueAsString();
+          break;
+        default:
+          // Including plugins, they are only read when asked for
+          parser.skipChildren();
+          break;
+      }
+    }
+  }
+
+}
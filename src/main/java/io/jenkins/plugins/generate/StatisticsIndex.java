@@ -0,0 +1,330 @@
+package io.jenkins.plugins.generate;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.hash.Hashing;
+import io.jenkins.plugins.commons.JsonObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntBinaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * <p>In-memory index of the <code>plugin-installation-trend</code> statistics of infra-statistics</p>
+ *
+ * <p>The directory is scanned once, in parallel, and every <code>&lt;plugin&gt;.stats.json</code> is decoded with a
+ * streaming parser into sorted primitive arrays. <code>StatsPluginDataParser</code> then only does map lookups instead
+ * of touching the file system for every plugin.</p>
+ */
+public class StatisticsIndex {
+
+  private static final Logger logger = LoggerFactory.getLogger(StatisticsIndex.class);
+
+  private static final String TREND_DIRECTORY = "plugin-installation-trend";
+  private static final String SUFFIX = ".stats.json";
+
+  private final Map<String, PluginStatistics> statistics;
+  private final Map<String, String> checksums;
+
+  private StatisticsIndex() {
+    this.statistics = new ConcurrentHashMap<>();
+    this.checksums = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * <p>Decode every statistics file below <code>statisticsPath</code></p>
+   *
+   * @param statisticsPath Checkout of infra-statistics
+   * @return index of the statistics
+   */
+  public static StatisticsIndex load(Path statisticsPath) {
+    final StatisticsIndex index = new StatisticsIndex();
+    final Path directory = statisticsPath.resolve(TREND_DIRECTORY);
+    final long start = System.nanoTime();
+    try (final Stream<Path> files = Files.list(directory)) {
+      files.parallel()
+        .filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+        .forEach(index::loadFile);
+    } catch (IOException e) {
+      logger.error("Problem listing plugin statistics", e);
+      throw new RuntimeException("Problem listing plugin statistics", e);
+    }
+    logger.info(String.format("Indexed statistics for %d plugins in %d ms", index.statistics.size(),
+      TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+    return index;
+  }
+
+  /**
+   * @param name Plugin name
+   * @return statistics for the plugin, null if there are none or they couldn't be decoded
+   */
+  public PluginStatistics get(String name) {
+    return statistics.get(name);
+  }
+
+  /**
+   * @param name Plugin name
+   * @return whether a statistics file exists for the plugin, even if it couldn't be decoded
+   */
+  public boolean contains(String name) {
+    return checksums.containsKey(name);
+  }
+
+  /**
+   * @param name Plugin name
+   * @return checksum of the plugin's statistics file, null if there is none
+   */
+  public String getChecksum(String name) {
+    return checksums.get(name);
+  }
+
+  private void loadFile(Path file) {
+    final String fileName = file.getFileName().toString();
+    final String name = fileName.substring(0, fileName.length() - SUFFIX.length());
+    try {
+      final byte[] content = Files.readAllBytes(file);
+      checksums.put(name, Hashing.sha256().hashBytes(content).toString());
+      statistics.put(name, decode(content));
+    } catch (Exception e) {
+      logger.error(String.format("Problem parsing statistics for %s", name), e);
+    }
+  }
+
+  private static PluginStatistics decode(byte[] content) throws IOException {
+    final JsonFactory factory = JsonObjectMapper.getObjectMapper().getFactory();
+    Series installations = null;
+    Series installationsPercentage = null;
+    Series installationsPerVersion = null;
+    Series installationsPercentagePerVersion = null;
+    try (final JsonParser parser = factory.createParser(content)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("Expected statistics to be a JSON object");
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        final String field = parser.getCurrentName();
+        parser.nextToken();
+        switch (field) {
+          case "installations":
+            installations = Series.read(parser);
+            break;
+          case "installationsPercentage":
+            installationsPercentage = Series.read(parser);
+            break;
+          case "installationsPerVersion":
+            installationsPerVersion = Series.read(parser);
+            break;
+          case "installationsPercentagePerVersion":
+            installationsPercentagePerVersion = Series.read(parser);
+            break;
+          default:
+            parser.skipChildren();
+            break;
+        }
+      }
+    }
+    if (installations == null || installationsPercentage == null || installationsPerVersion == null
+      || installationsPercentagePerVersion == null) {
+      throw new IOException("Statistics are missing one of installations, installationsPercentage, " +
+        "installationsPerVersion or installationsPercentagePerVersion");
+    }
+    final int[] byTimestamp = installations.orderByTimestamp();
+    final int[] percentageByTimestamp = installationsPercentage.orderByTimestamp();
+    final int[] byVersion = installationsPerVersion.orderByKey();
+    final int[] percentageByVersion = installationsPercentagePerVersion.orderByKey();
+    return new PluginStatistics(
+      installations.timestamps(byTimestamp), installations.ints(byTimestamp),
+      installationsPercentage.timestamps(percentageByTimestamp), installationsPercentage.doubles(percentageByTimestamp),
+      installationsPerVersion.keys(byVersion), installationsPerVersion.ints(byVersion),
+      installationsPercentagePerVersion.keys(percentageByVersion), installationsPercentagePerVersion.doubles(percentageByVersion)
+    );
+  }
+
+  /**
+   * <p>Decoded statistics of one plugin. Each pair of arrays is sorted by its first array.</p>
+   */
+  public static class PluginStatistics {
+
+    private final long[] installationTimestamps;
+    private final int[] installations;
+    private final long[] percentageTimestamps;
+    private final double[] percentages;
+    private final String[] versions;
+    private final int[] versionInstallations;
+    private final String[] percentageVersions;
+    private final double[] versionPercentages;
+
+    private PluginStatistics(long[] installationTimestamps, int[] installations,
+                             long[] percentageTimestamps, double[] percentages,
+                             String[] versions, int[] versionInstallations,
+                             String[] percentageVersions, double[] versionPercentages) {
+      this.installationTimestamps = installationTimestamps;
+      this.installations = installations;
+      this.percentageTimestamps = percentageTimestamps;
+      this.percentages = percentages;
+      this.versions = versions;
+      this.versionInstallations = versionInstallations;
+      this.percentageVersions = percentageVersions;
+      this.versionPercentages = versionPercentages;
+    }
+
+    public long[] getInstallationTimestamps() {
+      return installationTimestamps;
+    }
+
+    public int[] getInstallations() {
+      return installations;
+    }
+
+    public long[] getPercentageTimestamps() {
+      return percentageTimestamps;
+    }
+
+    public double[] getPercentages() {
+      return percentages;
+    }
+
+    public String[] getVersions() {
+      return versions;
+    }
+
+    public int[] getVersionInstallations() {
+      return versionInstallations;
+    }
+
+    public String[] getPercentageVersions() {
+      return percentageVersions;
+    }
+
+    public double[] getVersionPercentages() {
+      return versionPercentages;
+    }
+
+  }
+
+  /**
+   * <p>Growable key/value buffer for one statistics object, e.g. <code>{"1322697600000": 8906, ...}</code></p>
+   */
+  private static class Series {
+
+    private String[] keys = new String[64];
+    private double[] values = new double[64];
+    private long[] parsedTimestamps;
+    private int size = 0;
+
+    private static Series read(JsonParser parser) throws IOException {
+      final Series series = new Series();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        final String key = parser.getCurrentName();
+        parser.nextToken();
+        series.add(key, parser.getValueAsDouble());
+      }
+      return series;
+    }
+
+    private void add(String key, double value) {
+      if (size == keys.length) {
+        keys = Arrays.copyOf(keys, size * 2);
+        values = Arrays.copyOf(values, size * 2);
+      }
+      keys[size] = key;
+      values[size] = value;
+      size++;
+    }
+
+    private int[] orderByTimestamp() {
+      final long[] timestamps = new long[size];
+      parsedTimestamps = timestamps;
+      boolean sorted = true;
+      for (int i = 0; i < size; i++) {
+        timestamps[i] = Long.parseLong(keys[i]);
+        sorted &= i == 0 || timestamps[i - 1] <= timestamps[i];
+      }
+      // Files are usually already in order so only sort when needed
+      final int[] order = IntStream.range(0, size).toArray();
+      return sorted ? order : sort(order, (i, j) -> Long.compare(timestamps[i], timestamps[j]));
+    }
+
+    private int[] orderByKey() {
+      boolean sorted = true;
+      for (int i = 1; i < size && sorted; i++) {
+        sorted = keys[i - 1].compareTo(keys[i]) <= 0;
+      }
+      final int[] order = IntStream.range(0, size).toArray();
+      return sorted ? order : sort(order, (i, j) -> keys[i].compareTo(keys[j]));
+    }
+
+    /**
+     * <p>Stable bottom up merge sort of the indices in <code>order</code></p>
+     *
+     * @param compare Compares the entries at two indices
+     */
+    private static int[] sort(int[] order, IntBinaryOperator compare) {
+      int[] from = order;
+      int[] to = new int[order.length];
+      for (int width = 1; width < order.length; width *= 2) {
+        for (int lo = 0; lo < order.length; lo += 2 * width) {
+          final int mid = Math.min(lo + width, order.length);
+          final int hi = Math.min(lo + 2 * width, order.length);
+          int left = lo;
+          int right = mid;
+          for (int k = lo; k < hi; k++) {
+            if (left < mid && (right >= hi || compare.applyAsInt(from[left], from[right]) <= 0)) {
+              to[k] = from[left++];
+            } else {
+              to[k] = from[right++];
+            }
+          }
+        }
+        final int[] swap = from;
+        from = to;
+        to = swap;
+      }
+      return from;
+    }
+
+    // Only valid after orderByTimestamp
+    private long[] timestamps(int[] order) {
+      final long[] result = new long[order.length];
+      for (int i = 0; i < order.length; i++) {
+        result[i] = parsedTimestamps[order[i]];
+      }
+      return result;
+    }
+
+    private String[] keys(int[] order) {
+      final String[] result = new String[order.length];
+      for (int i = 0; i < order.length; i++) {
+        result[i] = keys[order[i]];
+      }
+      return result;
+    }
+
+    private int[] ints(int[] order) {
+      final int[] result = new int[order.length];
+      for (int i = 0; i < order.length; i++) {
+        result[i] = (int) values[order[i]];
+      }
+      return result;
+    }
+
+    private double[] doubles(int[] order) {
+      final double[] result = new double[order.length];
+      for (int i = 0; i < order.length; i++) {
+        result[i] = values[order[i]];
+      }
+      return result;
+    }
+
+  }
+
+}
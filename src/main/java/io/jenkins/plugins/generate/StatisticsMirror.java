@@ -0,0 +1,172 @@
+package io.jenkins.plugins.generate;
+
+import io.jenkins.plugins.utils.ConfigUtils;
+import io.jenkins.plugins.utils.HttpClientUtils;
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.ResetCommand;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * <p>Local mirror of the gh-pages branch of jenkins-infra/infra-statistics that is reused across runs</p>
+ *
+ * <p>The mirror lives in the directory given by <code>GENERATE_STATISTICS_MIRROR</code> or
+ * <code>generate.statistics.mirror</code>, defaulting to <code>.plugin-site-api/infra-statistics</code> in the user's
+ * home directory. It's kept out of the temp directory, which is often cleared on reboot and would force a full clone.
+ * An existing mirror is brought up to date by fetching only gh-pages and resetting to it. A full clone only happens
+ * when the mirror is missing or corrupt.</p>
+ */
+public class StatisticsMirror {
+
+  private static final Logger logger = LoggerFactory.getLogger(StatisticsMirror.class);
+
+  private static final String URI = "git://github.com/jenkins-infra/infra-statistics.git";
+  private static final String BRANCH = "refs/heads/gh-pages";
+  private static final String REMOTE_BRANCH = "refs/remotes/origin/gh-pages";
+  private static final Path DEFAULT_MIRROR = Paths.get(System.getProperty("user.home"), ".plugin-site-api", "infra-statistics");
+
+  /**
+   * <p>Bring the mirror up to date, cloning it if necessary</p>
+   *
+   * <p>A mirror that fails to fetch, e.g. because the network is down, is kept as it is and the failure propagates.
+   * Only a mirror whose repository can't be opened or has no <code>HEAD</code> is cloned again. A directory that isn't
+   * a mirror is never deleted.</p>
+   *
+   * @return path to the mirror's working tree
+   */
+  public static Path update() {
+    final Path mirror = Paths.get(ConfigUtils.getString("GENERATE_STATISTICS_MIRROR", "generate.statistics.mirror",
+      DEFAULT_MIRROR.toString()));
+    logger.info(String.format("Using statistics mirror at %s", mirror));
+    if (Files.isDirectory(mirror.resolve(".git"))) {
+      final Git git = open(mirror);
+      if (git != null) {
+        try {
+          fetch(git);
+          return mirror;
+        } catch (Exception e) {
+          logger.error(String.format("Problem updating statistics mirror at %s", mirror), e);
+          throw new RuntimeException(e);
+        } finally {
+          git.close();
+        }
+      }
+    } else if (!isEmptyDirectory(mirror)) {
+      logger.error(String.format("%s isn't a statistics mirror, not replacing it", mirror));
+      throw new RuntimeException(String.format("%s exists but isn't a statistics mirror", mirror));
+    } else {
+      logger.info(String.format("No statistics mirror at %s", mirror));
+    }
+    try {
+      FileUtils.deleteDirectory(mirror.toFile());
+      Files.createDirectories(mirror);
+      logger.info("Cloning jenkins-infra/infra-statistics");
+      Git.cloneRepository()
+        .setURI(URI)
+        .setBranch(BRANCH)
+        .setBranchesToClone(Collections.singletonList(BRANCH))
+        .setDirectory(mirror.toFile())
+        .setTimeout(HttpClientUtils.getSocketTimeout())
+        .call()
+        .close();
+      logger.info(String.format("Finished cloning jenkins-infra/infra-statistics to %s", mirror));
+      return mirror;
+    } catch (Exception e) {
+      logger.error("Problem downloading plugin statistics", e);
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * @return the mirror's repository, null if it's corrupt
+   */
+  private static Git open(Path mirror) {
+    Git git = null;
+    try {
+      git = Git.open(mirror.toFile());
+      if (git.getRepository().resolve(Constants.HEAD) != null) {
+        return git;
+      }
+      logger.warn(String.format("Statistics mirror at %s has no HEAD, cloning it again", mirror));
+    } catch (Exception e) {
+      logger.warn(String.format("Statistics mirror at %s is corrupt, cloning it again", mirror), e);
+    }
+    if (git != null) {
+      git.close();
+    }
+    return null;
+  }
+
+  private static boolean isEmptyDirectory(Path path) {
+    if (!Files.exists(path)) {
+      return true;
+    }
+    try (final Stream<Path> children = Files.list(path)) {
+      return !children.findAny().isPresent();
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private static void fetch(Git git) throws Exception {
+    final Repository repository = git.getRepository();
+    final ObjectId before = repository.resolve(Constants.HEAD);
+    logger.info("Fetching jenkins-infra/infra-statistics");
+    git.fetch()
+      .setRemote("origin")
+      .setRefSpecs(new RefSpec(String.format("+%s:%s", BRANCH, REMOTE_BRANCH)))
+      .setTimeout(HttpClientUtils.getSocketTimeout())
+      .call();
+    final ObjectId after = repository.resolve(REMOTE_BRANCH);
+    if (after == null) {
+      throw new IOException("Statistics mirror has no " + REMOTE_BRANCH);
+    }
+    git.reset().setMode(ResetCommand.ResetType.HARD).setRef(REMOTE_BRANCH).call();
+    if (before.equals(after)) {
+      logger.info("Statistics mirror is up to date");
+    } else {
+      logChanges(git, before, after);
+    }
+  }
+
+  private static void logChanges(Git git, ObjectId before, ObjectId after) throws Exception {
+    final Repository repository = git.getRepository();
+    try (final ObjectReader reader = repository.newObjectReader(); final RevWalk walk = new RevWalk(reader)) {
+      final CanonicalTreeParser oldTree = new CanonicalTreeParser();
+      oldTree.reset(reader, walk.parseCommit(before).getTree());
+      final CanonicalTreeParser newTree = new CanonicalTreeParser();
+      newTree.reset(reader, walk.parseCommit(after).getTree());
+      final List<DiffEntry> entries = git.diff()
+        .setOldTree(oldTree)
+        .setNewTree(newTree)
+        .setShowNameAndStatusOnly(true)
+        .call();
+      long bytes = 0;
+      for (DiffEntry entry : entries) {
+        if (entry.getChangeType() != DiffEntry.ChangeType.DELETE) {
+          bytes += reader.getObjectSize(entry.getNewId().toObjectId(), Constants.OBJ_BLOB);
+        }
+      }
+      logger.info(String.format("Statistics mirror updated from %s to %s - %d files changed, %d bytes",
+        before.abbreviate(7).name(), after.abbreviate(7).name(), entries.size(), bytes));
+    }
+  }
+
+}
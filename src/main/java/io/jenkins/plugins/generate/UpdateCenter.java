@@ -0,0 +1,193 @@
+package io.jenkins.plugins.generate;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.jenkins.plugins.commons.JsonObjectMapper;
+import io.jenkins.plugins.utils.HttpClientUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.http.StatusLine;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * <p>Streaming view of <code>update-center.json</code></p>
+ *
+ * <p>The response is spooled to a temporary file instead of the heap. One streaming pass collects the small lookup
+ * data every plugin needs - plugin titles and <code>warnings</code> - and <code>forEachPlugin</code> then walks the
+ * <code>plugins</code> object one plugin at a time. Only a single plugin is ever materialized as a
+ * <code>JSONObject</code>, so memory use doesn't grow with the size of the update center.</p>
+ *
+ * <p>A second pass is needed because <code>warnings</code> comes after <code>plugins</code> in the document and
+ * dependency titles can point at any plugin.</p>
+ */
+public class UpdateCenter implements Closeable {
+
+  private static final Logger logger = LoggerFactory.getLogger(UpdateCenter.class);
+
+  private final File file;
+  private final Map<String, String> pluginTitles;
+  private JSONArray warnings;
+
+  private UpdateCenter(File file) throws IOException {
+    this.file = file;
+    this.pluginTitles = new HashMap<>();
+    this.warnings = new JSONArray();
+    readLookupData();
+  }
+
+  public static UpdateCenter download(String url) {
+    final ResponseHandler<File> handler = httpResponse -> {
+      final StatusLine status = httpResponse.getStatusLine();
+      if (status.getStatusCode() == 200) {
+        final File file = File.createTempFile("update-center", ".json");
+        try (final OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file))) {
+          httpResponse.getEntity().writeTo(outputStream);
+        }
+        return file;
+      } else {
+        throw new ClientProtocolException(String.format("Unexpected response from update center - %s", status.toString()));
+      }
+    };
+    logger.info("Begin downloading from update center");
+    final File file;
+    try (final CloseableHttpClient httpClient = HttpClientUtils.createHttpClient()) {
+      file = httpClient.execute(new HttpGet(url), handler);
+    } catch (Exception e) {
+      logger.error("Problem communicating with update center", e);
+      throw new RuntimeException("Problem communicating with update center", e);
+    }
+    logger.info(String.format("Downloaded %d bytes from update center", file.length()));
+    return read(file);
+  }
+
+  public static UpdateCenter read(File file) {
+    try {
+      return new UpdateCenter(file);
+    } catch (Exception e) {
+      logger.error("Update center returned invalid JSON", e);
+      throw new RuntimeException("Update center returned invalid JSON", e);
+    }
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * @return plugin name to plugin title
+   */
+  public Map<String, String> getPluginTitles() {
+    return pluginTitles;
+  }
+
+  /**
+   * @return the <code>warnings</code> array of the update center
+   */
+  public JSONArray getWarnings() {
+    return warnings;
+  }
+
+  /**
+   * <p>Stream each entry of <code>plugins</code> to <code>consumer</code> in document order</p>
+   *
+   * @param consumer Receives each plugin as soon as it has been read
+   */
+  public void forEachPlugin(Consumer<JSONObject> consumer) {
+    try (final JsonParser parser = createParser()) {
+      if (!moveToField(parser, "plugins")) {
+        return;
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        parser.nextToken();
+        @SuppressWarnings("unchecked")
+        final Map<String, Object> pluginMap = parser.readValueAs(Map.class);
+        consumer.accept(new JSONObject(pluginMap));
+      }
+    } catch (IOException e) {
+      logger.error("Problem reading plugins from update center", e);
+      throw new RuntimeException("Problem reading plugins from update center", e);
+    }
+  }
+
+  @Override
+  public void close() {
+    FileUtils.deleteQuietly(file);
+  }
+
+  private void readLookupData() throws IOException {
+    try (final JsonParser parser = createParser()) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("Expected update center to be a JSON object");
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        final String field = parser.getCurrentName();
+        parser.nextToken();
+        switch (field) {
+          case "plugins":
+            readPluginTitles(parser);
+            break;
+          case "warnings":
+            warnings = new JSONArray(parser.readValueAs(List.class));
+            break;
+          default:
+            parser.skipChildren();
+            break;
+        }
+      }
+    }
+  }
+
+  private void readPluginTitles(JsonParser parser) throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      parser.nextToken();
+      String name = null;
+      String title = null;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        final String field = parser.getCurrentName();
+        parser.nextToken();
+        if (field.equals("name")) {
+          name = parser.getValueAsString();
+        } else if (field.equals("title")) {
+          title = parser.getValueAsString();
+        } else {
+          parser.skipChildren();
+        }
+      }
+      if (name != null && title != null) {
+        pluginTitles.put(name, title);
+      }
+    }
+  }
+
+  private boolean moveToField(JsonParser parser, String name) throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new IOException("Expected update center to be a JSON object");
+    }
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String field = parser.getCurrentName();
+      parser.nextToken();
+      if (field.equals(name)) {
+        return true;
+      }
+      parser.skipChildren();
+    }
+    return false;
+  }
+
+  private JsonParser createParser() throws IOException {
+    final JsonFactory factory = JsonObjectMapper.getObjectMapper().getFactory();
+    return factory.createParser(file);
+  }
+
+}
@@ -10,6 +10,7 @@ import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -48,4 +49,14 @@ public class CategoriesPluginDataParser implements PluginDataParser {
     }
   }
 
+  @Override
+  public Set<String> reads() {
+    return Collections.singleton("labels");
+  }
+
+  @Override
+  public Set<String> writes() {
+    return Collections.singleton("categories");
+  }
+
 }
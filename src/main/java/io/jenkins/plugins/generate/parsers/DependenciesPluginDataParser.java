@@ -1,11 +1,14 @@
 package io.jenkins.plugins.generate.parsers;
 
+import io.jenkins.plugins.generate.Fingerprint;
 import io.jenkins.plugins.generate.PluginDataParser;
 import io.jenkins.plugins.models.Dependency;
 import io.jenkins.plugins.models.Plugin;
 import org.json.JSONObject;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -13,9 +16,8 @@ public class DependenciesPluginDataParser implements PluginDataParser {
 
   private final Map<String, String> dependencyNameToTitleMap;
 
-  public DependenciesPluginDataParser(JSONObject updateCenterJson) {
-    final JSONObject pluginsJson = updateCenterJson.getJSONObject("plugins");
-    dependencyNameToTitleMap = buildDependencyNameToTitleMap(pluginsJson);
+  public DependenciesPluginDataParser(Map<String, String> dependencyNameToTitleMap) {
+    this.dependencyNameToTitleMap = dependencyNameToTitleMap;
   }
 
   @Override
@@ -34,10 +36,16 @@ public class DependenciesPluginDataParser implements PluginDataParser {
       }).collect(Collectors.toList()));
   }
 
-  private Map<String, String> buildDependencyNameToTitleMap(JSONObject pluginsJson) {
-    return pluginsJson.keySet().stream()
-      .map(pluginsJson::getJSONObject)
-      .collect(Collectors.toMap(plugin -> plugin.getString("name"), plugin -> plugin.getString("title")));
+  @Override
+  public void fingerprint(JSONObject pluginJson, Fingerprint fingerprint) {
+    StreamSupport.stream(pluginJson.optJSONArray("dependencies").spliterator(), false)
+      .map(obj -> ((JSONObject)obj).getString("name"))
+      .forEach(name -> fingerprint.putString(dependencyNameToTitleMap.get(name)));
+  }
+
+  @Override
+  public Set<String> writes() {
+    return Collections.singleton("dependencies");
   }
 
 }
@@ -1,7 +1,9 @@
 package io.jenkins.plugins.generate.parsers;
 
+import io.jenkins.plugins.generate.Fingerprint;
 import io.jenkins.plugins.generate.PluginDataParser;
 import io.jenkins.plugins.models.Plugin;
+import io.jenkins.plugins.utils.HttpClientUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpEntity;
 import org.apache.http.StatusLine;
@@ -9,7 +11,6 @@ import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.ResponseHandler;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -22,6 +23,8 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -34,7 +37,11 @@ public class FirstReleasePluginDataParser implements PluginDataParser {
   private final Map<String, LocalDateTime> gavToFirstReleaseMap;
 
   public FirstReleasePluginDataParser() {
-    gavToFirstReleaseMap = buildGavToFirstReleaseMap();
+    this(fetchGavToFirstReleaseMap());
+  }
+
+  public FirstReleasePluginDataParser(Map<String, LocalDateTime> gavToFirstReleaseMap) {
+    this.gavToFirstReleaseMap = gavToFirstReleaseMap;
   }
 
   @Override
@@ -44,34 +51,29 @@ public class FirstReleasePluginDataParser implements PluginDataParser {
     plugin.setFirstRelease(gavToFirstReleaseMap.getOrDefault(getGavKey(gav), null));
   }
 
-  private String getGavKey(String gav) {
+  @Override
+  public void fingerprint(JSONObject pluginJson, Fingerprint fingerprint) {
+    final String gav = StringUtils.trimToNull(pluginJson.optString("gav", null));
+    fingerprint.putString(Objects.toString(gavToFirstReleaseMap.get(getGavKey(gav)), null));
+  }
+
+  private static String getGavKey(String gav) {
     return StringUtils.substringBeforeLast(gav, ":");
   }
 
-  private Map<String, LocalDateTime> buildGavToFirstReleaseMap() {
+  /**
+   * <p>Download release-history.json and map each groupId:artifactId to its first release</p>
+   *
+   * @return groupId:artifactId to first release, empty if release-history.json can't be retrieved
+   */
+  public static Map<String, LocalDateTime> fetchGavToFirstReleaseMap() {
     final ResponseHandler<Map<String, LocalDateTime>> handler = httpResponse -> {
       final StatusLine status = httpResponse.getStatusLine();
       if (status.getStatusCode() == 200) {
         final HttpEntity entity = httpResponse.getEntity();
         final String content = EntityUtils.toString(entity, StandardCharsets.UTF_8);
         try {
-          final JSONObject json = new JSONObject(content);
-          final JSONArray releaseHistory = json.getJSONArray("releaseHistory");
-          // Flatten out "releaseHistory.releases" to "releases" where "releases.firstRelease" is true
-          return StreamSupport.stream(releaseHistory.spliterator(), false)
-            .map(obj -> (JSONObject) obj)
-            .map(entry -> {
-              final JSONArray releases = entry.getJSONArray("releases");
-              return StreamSupport.stream(releases.spliterator(), false)
-                .map(obj -> (JSONObject) obj)
-                .filter(release -> release.optBoolean("firstRelease", false) && release.has("gav"))
-                .collect(Collectors.toMap(
-                  release -> getGavKey(release.getString("gav")),
-                  release -> LocalDateTime.from(Instant.ofEpochMilli(release.getLong("timestamp")).atZone(ZoneId.of("UTC")))));
-            })
-            .collect(Collectors.toList()).stream()
-            .flatMap(map -> map.entrySet().stream())
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+          return parseGavToFirstReleaseMap(new JSONObject(content));
         } catch (Exception e) {
           logger.error("{} returned invalid JSON", URL, e);
           throw new ClientProtocolException(String.format("%s returned invalid JSON", URL));
@@ -80,11 +82,41 @@ public class FirstReleasePluginDataParser implements PluginDataParser {
         throw new ClientProtocolException(String.format("Unexpected response from %s - %s", URL, status.toString()));
       }
     };
-    try (final CloseableHttpClient httpClient = HttpClients.createDefault()) {
+    try (final CloseableHttpClient httpClient = HttpClientUtils.createHttpClient()) {
       return httpClient.execute(new HttpGet(URL), handler);
     } catch (Exception e) {
       logger.error("Problem communicating with {}", URL, e);
       return Collections.emptyMap();
     }
   }
+
+  /**
+   * <p>Map each groupId:artifactId in release-history.json to its first release</p>
+   *
+   * @param json Content of release-history.json
+   * @return groupId:artifactId to first release
+   */
+  public static Map<String, LocalDateTime> parseGavToFirstReleaseMap(JSONObject json) {
+    final JSONArray releaseHistory = json.getJSONArray("releaseHistory");
+    // Flatten out "releaseHistory.releases" to "releases" where "releases.firstRelease" is true
+    return StreamSupport.stream(releaseHistory.spliterator(), false)
+      .map(obj -> (JSONObject) obj)
+      .map(entry -> {
+        final JSONArray releases = entry.getJSONArray("releases");
+        return StreamSupport.stream(releases.spliterator(), false)
+          .map(obj -> (JSONObject) obj)
+          .filter(release -> release.optBoolean("firstRelease", false) && release.has("gav"))
+          .collect(Collectors.toMap(
+            release -> getGavKey(release.getString("gav")),
+            release -> LocalDateTime.from(Instant.ofEpochMilli(release.getLong("timestamp")).atZone(ZoneId.of("UTC")))));
+      })
+      .collect(Collectors.toList()).stream()
+      .flatMap(map -> map.entrySet().stream())
+      .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+  }
+
+  @Override
+  public Set<String> writes() {
+    return Collections.singleton("firstRelease");
+  }
 }
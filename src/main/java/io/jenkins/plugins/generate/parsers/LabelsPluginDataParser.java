@@ -4,6 +4,8 @@ import io.jenkins.plugins.generate.PluginDataParser;
 import io.jenkins.plugins.models.Plugin;
 import org.json.JSONObject;
 
+import java.util.Collections;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -16,4 +18,9 @@ public class LabelsPluginDataParser implements PluginDataParser {
       .collect(Collectors.toSet()));
   }
 
+  @Override
+  public Set<String> writes() {
+    return Collections.singleton("labels");
+  }
+
 }
@@ -6,6 +6,7 @@ import io.jenkins.plugins.models.Plugin;
 import org.apache.commons.lang3.StringUtils;
 import org.json.JSONObject;
 
+import java.util.Collections;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -31,4 +32,9 @@ public class MaintainersPluginDataParser implements PluginDataParser {
       }).collect(Collectors.toList()));
   }
 
+  @Override
+  public Set<String> writes() {
+    return Collections.singleton("maintainers");
+  }
+
 }
@@ -8,7 +8,10 @@ import org.json.JSONObject;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Locale;
+import java.util.Set;
 
 public class RootPluginDataParser implements PluginDataParser {
 
@@ -41,4 +44,10 @@ public class RootPluginDataParser implements PluginDataParser {
       plugin.setReleaseTimestamp(releaseTimestamp);
     }
   }
+
+  @Override
+  public Set<String> writes() {
+    return new HashSet<>(Arrays.asList("buildDate", "excerpt", "gav", "name", "previousTimestamp", "previousVersion",
+      "releaseTimestamp", "requiredCore", "sha1", "title", "url", "version"));
+  }
 }
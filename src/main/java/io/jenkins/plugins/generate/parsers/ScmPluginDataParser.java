@@ -6,6 +6,9 @@ import io.jenkins.plugins.models.Scm;
 import org.apache.commons.lang3.StringUtils;
 import org.json.JSONObject;
 
+import java.util.Collections;
+import java.util.Set;
+
 public class ScmPluginDataParser implements PluginDataParser {
 
   @Override
@@ -15,4 +18,9 @@ public class ScmPluginDataParser implements PluginDataParser {
     scm.setLink(scmString);
     plugin.setScm(scm);
   }
+
+  @Override
+  public Set<String> writes() {
+    return Collections.singleton("scm");
+  }
 }
@@ -1,85 +1,78 @@
 package io.jenkins.plugins.generate.parsers;
 
+import io.jenkins.plugins.generate.Fingerprint;
 import io.jenkins.plugins.generate.PluginDataParser;
+import io.jenkins.plugins.generate.StatisticsIndex;
+import io.jenkins.plugins.generate.StatisticsMirror;
 import io.jenkins.plugins.models.*;
-import org.eclipse.jgit.api.Git;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.Comparator;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 
 public class StatsPluginDataParser implements PluginDataParser {
 
   private static final Logger logger = LoggerFactory.getLogger(StatsPluginDataParser.class);
 
-  private final Path statisticsPath;
+  private final StatisticsIndex statisticsIndex;
 
   public StatsPluginDataParser() {
-    try {
-      statisticsPath = Files.createTempDirectory("infra-statistics");
-      logger.info("Cloning jenkins-infra/infra-statistics");
-      Git.cloneRepository().setURI("git://github.com/jenkins-infra/infra-statistics.git").setBranch("gh-pages").setDirectory(statisticsPath.toFile()).call();
-      logger.info("Finished cloning jenkins-infra/infra-statistics");
-    } catch (Exception e) {
-      logger.error("Problem downloading plugin statistics", e);
-      throw new RuntimeException(e);
-    }
+    this(StatisticsIndex.load(StatisticsMirror.update()));
+  }
+
+  public StatsPluginDataParser(StatisticsIndex statisticsIndex) {
+    this.statisticsIndex = statisticsIndex;
   }
 
   @Override
   public void parse(JSONObject pluginJson, Plugin plugin) {
     final String name = pluginJson.getString("name");
-    try {
-      final Path file = statisticsPath.resolve(String.format("plugin-installation-trend%c%s.stats.json", File.separatorChar, name));
-      final Stats stats = new Stats();
-      if (Files.exists(file)) {
-        logger.info(String.format("Processing statistics for %s", name));
-        final JSONObject statsJson = new JSONObject(Files.lines(file).collect(Collectors.joining("\n")));
-        final JSONObject installations = statsJson.getJSONObject("installations");
-        final JSONObject installationsPercentage = statsJson.getJSONObject("installationsPercentage");
-        final JSONObject installationsPerVersion = statsJson.getJSONObject("installationsPerVersion");
-        final JSONObject installationsPercentagePerVersion = statsJson.getJSONObject("installationsPercentagePerVersion");
-        stats.setInstallations(installations.keySet().stream().map(timestamp ->
-          new Installation(
-            Long.valueOf(timestamp),
-            installations.getInt(timestamp)
-          )
-        ).sorted(Comparator.comparingLong(Installation::getTimestamp)).collect(Collectors.toList()));
-        stats.setInstallationsPercentage(installationsPercentage.keySet().stream().map(timestamp ->
-          new InstallationPercentage(
-            Long.valueOf(timestamp),
-            installationsPercentage.getDouble(timestamp)
-          )
-        ).sorted(Comparator.comparing(InstallationPercentage::getTimestamp)).collect(Collectors.toList()));
-        stats.setInstallationsPerVersion(installationsPerVersion.keySet().stream().map(version ->
-          new InstallationVersion(
-            version,
-            installationsPerVersion.getInt(version)
-          )
-        ).sorted(Comparator.comparing(InstallationVersion::getVersion)).collect(Collectors.toList()));
-        stats.setInstallationsPercentagePerVersion(installationsPercentagePerVersion.keySet().stream().map(version ->
-          new InstallationPercentageVersion(
-            version,
-            installationsPercentagePerVersion.getDouble(version)
-          )
-        ).sorted(Comparator.comparing(InstallationPercentageVersion::getVersion)).collect(Collectors.toList()));
-        stats.setCurrentInstalls(!stats.getInstallations().isEmpty() ? stats.getInstallations().get(stats.getInstallations().size()-1).getTotal() : 0);
-        if (stats.getInstallations().size() > 1) {
-          final int size = stats.getInstallations().size();
-          final long trend = stats.getInstallations().get(size-1).getTotal() - stats.getInstallations().get(size-2).getTotal();
-          stats.setTrend(trend);
-        }
-      } else {
-        logger.warn(String.format("No statistics available for %s", name));
+    final Stats stats = new Stats();
+    final StatisticsIndex.PluginStatistics statistics = statisticsIndex.get(name);
+    if (statistics != null) {
+      final int[] installations = statistics.getInstallations();
+      stats.setInstallations(new InstallationSeries(statistics.getInstallationTimestamps(), installations));
+      stats.setInstallationsPercentage(new InstallationPercentageSeries(statistics.getPercentageTimestamps(), statistics.getPercentages()));
+      final String[] versions = statistics.getVersions();
+      final int[] versionInstallations = statistics.getVersionInstallations();
+      final List<InstallationVersion> versionList = new ArrayList<>(versions.length);
+      for (int i = 0; i < versions.length; i++) {
+        versionList.add(new InstallationVersion(versions[i], versionInstallations[i]));
       }
-      plugin.setStats(stats);
-    } catch (Exception e) {
-      logger.error(String.format("Problem parsing statistics for %s", name), e);
+      stats.setInstallationsPerVersion(versionList);
+      final String[] percentageVersions = statistics.getPercentageVersions();
+      final double[] versionPercentages = statistics.getVersionPercentages();
+      final List<InstallationPercentageVersion> versionPercentageList = new ArrayList<>(percentageVersions.length);
+      for (int i = 0; i < percentageVersions.length; i++) {
+        versionPercentageList.add(new InstallationPercentageVersion(percentageVersions[i], versionPercentages[i]));
+      }
+      stats.setInstallationsPercentagePerVersion(versionPercentageList);
+      final int size = installations.length;
+      stats.setCurrentInstalls(size > 0 ? installations[size-1] : 0);
+      if (size > 1) {
+        stats.setTrend(installations[size-1] - installations[size-2]);
+      }
+    } else if (statisticsIndex.contains(name)) {
+      // Decoding failed and was logged when the index was loaded
+      return;
+    } else {
+      logger.warn(String.format("No statistics available for %s", name));
     }
+    plugin.setStats(stats);
+  }
+
+  @Override
+  public void fingerprint(JSONObject pluginJson, Fingerprint fingerprint) {
+    fingerprint.putString(statisticsIndex.getChecksum(pluginJson.getString("name")));
+  }
+
+  @Override
+  public Set<String> writes() {
+    return Collections.singleton("stats");
   }
+
 }
@@ -1,8 +1,10 @@
 package io.jenkins.plugins.generate.parsers;
 
+import io.jenkins.plugins.generate.Fingerprint;
 import io.jenkins.plugins.generate.PluginDataParser;
 import io.jenkins.plugins.models.Plugin;
 import io.jenkins.plugins.models.Wiki;
+import io.jenkins.plugins.utils.HttpClientUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.validator.routines.UrlValidator;
 import org.apache.http.HttpEntity;
@@ -11,7 +13,6 @@ import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.ResponseHandler;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
 import org.json.JSONObject;
 import org.slf4j.Logger;
@@ -20,6 +21,7 @@ import org.slf4j.LoggerFactory;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -34,7 +36,11 @@ public class WikiPluginDataParser implements PluginDataParser {
   private final Map<String, String> pluginToDocumentationUrlMap;
 
   public WikiPluginDataParser() {
-    pluginToDocumentationUrlMap = buildPluginToDocumentationUrlMap();
+    this(fetchPluginToDocumentationUrlMap());
+  }
+
+  public WikiPluginDataParser(Map<String, String> pluginToDocumentationUrlMap) {
+    this.pluginToDocumentationUrlMap = pluginToDocumentationUrlMap;
   }
 
   @Override
@@ -43,21 +49,28 @@ public class WikiPluginDataParser implements PluginDataParser {
     plugin.setWiki(new Wiki(null, url));
   }
 
+  @Override
+  public void fingerprint(JSONObject pluginJson, Fingerprint fingerprint) {
+    fingerprint.putString(pluginToDocumentationUrlMap.get(pluginJson.getString("name")));
+  }
+
   private String verifyWikiBlacklist(String url) {
     return URL_VALIDATOR.isValid(url) ? url : null;
   }
 
-  private Map<String, String> buildPluginToDocumentationUrlMap() {
+  /**
+   * <p>Download plugin-documentation-urls.json</p>
+   *
+   * @return plugin name to documentation URL, empty if plugin-documentation-urls.json can't be retrieved
+   */
+  public static Map<String, String> fetchPluginToDocumentationUrlMap() {
     final ResponseHandler<Map<String, String>> handler = httpResponse -> {
       final StatusLine status = httpResponse.getStatusLine();
       if (status.getStatusCode() == 200) {
         final HttpEntity entity = httpResponse.getEntity();
         final String content = EntityUtils.toString(entity, StandardCharsets.UTF_8);
         try {
-          final JSONObject json = new JSONObject(content);
-          return json.keySet().stream()
-            .filter(key -> StringUtils.isNotBlank(json.getJSONObject(key).optString("url", null)))
-            .collect(Collectors.toMap(Function.identity(), key -> json.getJSONObject(key).getString("url")));
+          return parsePluginToDocumentationUrlMap(new JSONObject(content));
         } catch (Exception e) {
           logger.error("{} returned invalid JSON", URL, e);
           throw new ClientProtocolException(String.format("%s returned invalid JSON", URL));
@@ -66,7 +79,7 @@ public class WikiPluginDataParser implements PluginDataParser {
         throw new ClientProtocolException(String.format("Unexpected response from %s - %s", URL, status.toString()));
       }
     };
-    try (final CloseableHttpClient httpClient = HttpClients.createDefault()) {
+    try (final CloseableHttpClient httpClient = HttpClientUtils.createHttpClient()) {
       return httpClient.execute(new HttpGet(URL), handler);
     } catch (Exception e) {
       logger.error("Problem communicating with {}", URL, e);
@@ -74,4 +87,21 @@ public class WikiPluginDataParser implements PluginDataParser {
     }
   }
 
+  /**
+   * <p>Map each plugin in plugin-documentation-urls.json to its documentation URL</p>
+   *
+   * @param json Content of plugin-documentation-urls.json
+   * @return plugin name to documentation URL
+   */
+  public static Map<String, String> parsePluginToDocumentationUrlMap(JSONObject json) {
+    return json.keySet().stream()
+      .filter(key -> StringUtils.isNotBlank(json.getJSONObject(key).optString("url", null)))
+      .collect(Collectors.toMap(Function.identity(), key -> json.getJSONObject(key).getString("url")));
+  }
+
+  @Override
+  public Set<String> writes() {
+    return Collections.singleton("wiki");
+  }
+
 }
@@ -0,0 +1,87 @@
+package io.jenkins.plugins.models;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * <p>Installation percentages over time stored as parallel primitive arrays</p>
+ *
+ * <p>Serialized exactly like a <code>List&lt;InstallationPercentage&gt;</code>, i.e.
+ * <code>[{"timestamp": 1322697600000, "percentage": 1.5}, ...]</code>.</p>
+ */
+@JsonSerialize(using = InstallationPercentageSeries.Serializer.class)
+@JsonDeserialize(using = InstallationPercentageSeries.Deserializer.class)
+public class InstallationPercentageSeries extends TimestampSeries<double[], InstallationPercentage, InstallationPercentageSeries> {
+
+  private static final Codec<double[], InstallationPercentage, InstallationPercentageSeries> CODEC = new Codec<double[], InstallationPercentage, InstallationPercentageSeries>() {
+    @Override
+    public String field() {
+      return "percentage";
+    }
+
+    @Override
+    public double[] newValues(int size) {
+      return new double[size];
+    }
+
+    @Override
+    public void read(JsonParser parser, double[] values, int index) throws IOException {
+      values[index] = parser.getValueAsDouble();
+    }
+
+    @Override
+    public void write(JsonGenerator generator, double[] values, int index) throws IOException {
+      generator.writeNumber(values[index]);
+    }
+
+    @Override
+    public InstallationPercentage get(long timestamp, double[] values, int index) {
+      return new InstallationPercentage(timestamp, values[index]);
+    }
+
+    @Override
+    public InstallationPercentageSeries create(long[] timestamps, double[] values) {
+      return new InstallationPercentageSeries(timestamps, values);
+    }
+  };
+
+  public InstallationPercentageSeries(long[] timestamps, double[] percentages) {
+    super(CODEC, timestamps, percentages);
+  }
+
+  public static InstallationPercentageSeries of(List<InstallationPercentage> installationsPercentage) {
+    final long[] timestamps = new long[installationsPercentage.size()];
+    final double[] percentages = new double[installationsPercentage.size()];
+    for (int i = 0; i < timestamps.length; i++) {
+      timestamps[i] = installationsPercentage.get(i).getTimestamp();
+      percentages[i] = installationsPercentage.get(i).getPercentage();
+    }
+    return new InstallationPercentageSeries(timestamps, percentages);
+  }
+
+  public double getPercentage(int index) {
+    return values[index];
+  }
+
+  public static class Serializer extends TimestampSeries.Serializer<InstallationPercentageSeries> {
+
+    public Serializer() {
+      super(InstallationPercentageSeries.class);
+    }
+
+  }
+
+  public static class Deserializer extends TimestampSeries.Deserializer<double[], InstallationPercentageSeries> {
+
+    public Deserializer() {
+      super(InstallationPercentageSeries.class, CODEC);
+    }
+
+  }
+
+}
@@ -0,0 +1,87 @@
+package io.jenkins.plugins.models;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * <p>Installation totals over time stored as parallel primitive arrays</p>
+ *
+ * <p>Serialized exactly like a <code>List&lt;Installation&gt;</code>, i.e.
+ * <code>[{"timestamp": 1322697600000, "total": 8906}, ...]</code>.</p>
+ */
+@JsonSerialize(using = InstallationSeries.Serializer.class)
+@JsonDeserialize(using = InstallationSeries.Deserializer.class)
+public class InstallationSeries extends TimestampSeries<int[], Installation, InstallationSeries> {
+
+  private static final Codec<int[], Installation, InstallationSeries> CODEC = new Codec<int[], Installation, InstallationSeries>() {
+    @Override
+    public String field() {
+      return "total";
+    }
+
+    @Override
+    public int[] newValues(int size) {
+      return new int[size];
+    }
+
+    @Override
+    public void read(JsonParser parser, int[] values, int index) throws IOException {
+      values[index] = parser.getValueAsInt();
+    }
+
+    @Override
+    public void write(JsonGenerator generator, int[] values, int index) throws IOException {
+      generator.writeNumber(values[index]);
+    }
+
+    @Override
+    public Installation get(long timestamp, int[] values, int index) {
+      return new Installation(timestamp, values[index]);
+    }
+
+    @Override
+    public InstallationSeries create(long[] timestamps, int[] values) {
+      return new InstallationSeries(timestamps, values);
+    }
+  };
+
+  public InstallationSeries(long[] timestamps, int[] totals) {
+    super(CODEC, timestamps, totals);
+  }
+
+  public static InstallationSeries of(List<Installation> installations) {
+    final long[] timestamps = new long[installations.size()];
+    final int[] totals = new int[installations.size()];
+    for (int i = 0; i < timestamps.length; i++) {
+      timestamps[i] = installations.get(i).getTimestamp();
+      totals[i] = installations.get(i).getTotal();
+    }
+    return new InstallationSeries(timestamps, totals);
+  }
+
+  public int getTotal(int index) {
+    return values[index];
+  }
+
+  public static class Serializer extends TimestampSeries.Serializer<InstallationSeries> {
+
+    public Serializer() {
+      super(InstallationSeries.class);
+    }
+
+  }
+
+  public static class Deserializer extends TimestampSeries.Deserializer<int[], InstallationSeries> {
+
+    public Deserializer() {
+      super(InstallationSeries.class, CODEC);
+    }
+
+  }
+
+}
@@ -1,6 +1,7 @@
 package io.jenkins.plugins.models;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.List;
@@ -23,6 +24,11 @@ public class Plugins {
   @JsonProperty("limit")
   private int limit;
 
+  // Continues after the last plugin, null on the last page
+  @JsonProperty("cursor")
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private String cursor;
+
   public Plugins() {
   }
 
@@ -73,4 +79,12 @@ public class Plugins {
   public void setLimit(int limit) {
     this.limit = limit;
   }
+
+  public String getCursor() {
+    return cursor;
+  }
+
+  public void setCursor(String cursor) {
+    this.cursor = cursor;
+  }
 }
@@ -12,6 +12,9 @@ public class SecurityWarningVersion {
   @JsonProperty("lastVersion")
   private String lastVersion;
 
+  @JsonProperty("pattern")
+  private String pattern;
+
   public SecurityWarningVersion() {
   }
 
@@ -20,6 +23,12 @@ public class SecurityWarningVersion {
     this.lastVersion = lastVersion;
   }
 
+  public SecurityWarningVersion(String firstVersion, String lastVersion, String pattern) {
+    this.firstVersion = firstVersion;
+    this.lastVersion = lastVersion;
+    this.pattern = pattern;
+  }
+
   public String getFirstVersion() {
     return firstVersion;
   }
@@ -36,4 +45,12 @@ public class SecurityWarningVersion {
     this.lastVersion = lastVersion;
   }
 
+  public String getPattern() {
+    return pattern;
+  }
+
+  public void setPattern(String pattern) {
+    this.pattern = pattern;
+  }
+
 }
@@ -0,0 +1,64 @@
+package io.jenkins.plugins.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SecurityWarnings {
+
+  @JsonProperty("name")
+  private String name;
+
+  @JsonProperty("version")
+  private String version;
+
+  @JsonProperty("affected")
+  private boolean affected;
+
+  @JsonProperty("securityWarnings")
+  private List<SecurityWarning> securityWarnings;
+
+  public SecurityWarnings() {
+  }
+
+  public SecurityWarnings(String name, String version, List<SecurityWarning> securityWarnings) {
+    this.name = name;
+    this.version = version;
+    this.affected = securityWarnings.stream().anyMatch(SecurityWarning::isActive);
+    this.securityWarnings = securityWarnings;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public String getVersion() {
+    return version;
+  }
+
+  public void setVersion(String version) {
+    this.version = version;
+  }
+
+  public boolean isAffected() {
+    return affected;
+  }
+
+  public void setAffected(boolean affected) {
+    this.affected = affected;
+  }
+
+  public List<SecurityWarning> getSecurityWarnings() {
+    return securityWarnings;
+  }
+
+  public void setSecurityWarnings(List<SecurityWarning> securityWarnings) {
+    this.securityWarnings = securityWarnings;
+  }
+}
@@ -9,10 +9,10 @@ import java.util.List;
 public class Stats {
 
   @JsonProperty("installations")
-  private List<Installation> installations;
+  private InstallationSeries installations;
 
   @JsonProperty("installationsPercentage")
-  private List<InstallationPercentage> installationsPercentage;
+  private InstallationPercentageSeries installationsPercentage;
 
   @JsonProperty("installationsPerVersion")
   private List<InstallationVersion> installationsPerVersion;
@@ -29,7 +29,7 @@ public class Stats {
   public Stats() {
   }
 
-  public Stats(List<Installation> installations, List<InstallationPercentage> installationsPercentage, List<InstallationVersion> installationsPerVersion, List<InstallationPercentageVersion> installationsPercentagePerVersion, long currentInstalls, long trend) {
+  public Stats(InstallationSeries installations, InstallationPercentageSeries installationsPercentage, List<InstallationVersion> installationsPerVersion, List<InstallationPercentageVersion> installationsPercentagePerVersion, long currentInstalls, long trend) {
     this.installations = installations;
     this.installationsPercentage = installationsPercentage;
     this.installationsPerVersion = installationsPerVersion;
@@ -38,19 +38,19 @@ public class Stats {
     this.trend = trend;
   }
 
-  public List<Installation> getInstallations() {
+  public InstallationSeries getInstallations() {
     return installations;
   }
 
-  public void setInstallations(List<Installation> installations) {
+  public void setInstallations(InstallationSeries installations) {
     this.installations = installations;
   }
 
-  public List<InstallationPercentage> getInstallationsPercentage() {
+  public InstallationPercentageSeries getInstallationsPercentage() {
     return installationsPercentage;
   }
 
-  public void setInstallationsPercentage(List<InstallationPercentage> installationsPercentage) {
+  public void setInstallationsPercentage(InstallationPercentageSeries installationsPercentage) {
     this.installationsPercentage = installationsPercentage;
   }
 
@@ -0,0 +1,179 @@
+package io.jenkins.plugins.models;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>Values over time stored as a <code>long[]</code> of timestamps and a parallel primitive array of values</p>
+ *
+ * <p>Serialized exactly like a list of <code>{"timestamp": 1322697600000, "&lt;field&gt;": ...}</code> objects, so the
+ * data file, the Elasticsearch documents and the REST API don't depend on how the series is stored. Subclasses only
+ * provide a {@link Codec} for their value type.</p>
+ *
+ * @param <V> Primitive array type of the values, e.g. <code>int[]</code>
+ * @param <E> Type of the data points, e.g. <code>Installation</code>
+ * @param <S> Type of the series itself
+ */
+public abstract class TimestampSeries<V, E, S extends TimestampSeries<V, E, S>> {
+
+  private final Codec<V, E, S> codec;
+  private final long[] timestamps;
+  protected final V values;
+
+  protected TimestampSeries(Codec<V, E, S> codec, long[] timestamps, V values) {
+    if (timestamps.length != Array.getLength(values)) {
+      throw new IllegalArgumentException(String.format("timestamps and %ss must have the same length", codec.field()));
+    }
+    this.codec = codec;
+    this.timestamps = timestamps;
+    this.values = values;
+  }
+
+  public int size() {
+    return timestamps.length;
+  }
+
+  public boolean isEmpty() {
+    return timestamps.length == 0;
+  }
+
+  public long getTimestamp(int index) {
+    return timestamps[index];
+  }
+
+  /**
+   * @param indices Indices of the data points to keep, in order
+   * @return new series with only the given data points
+   */
+  public S select(int[] indices) {
+    final long[] selectedTimestamps = new long[indices.length];
+    final V selectedValues = codec.newValues(indices.length);
+    for (int i = 0; i < indices.length; i++) {
+      selectedTimestamps[i] = timestamps[indices[i]];
+      System.arraycopy(values, indices[i], selectedValues, i, 1);
+    }
+    return codec.create(selectedTimestamps, selectedValues);
+  }
+
+  /**
+   * @return read only view of the series as data point objects, created on access
+   */
+  public List<E> asList() {
+    return new AbstractList<E>() {
+      @Override
+      public E get(int index) {
+        return codec.get(timestamps[index], values, index);
+      }
+
+      @Override
+      public int size() {
+        return timestamps.length;
+      }
+    };
+  }
+
+  void write(JsonGenerator generator) throws IOException {
+    generator.writeStartArray();
+    for (int i = 0; i < timestamps.length; i++) {
+      generator.writeStartObject();
+      generator.writeNumberField("timestamp", timestamps[i]);
+      generator.writeFieldName(codec.field());
+      codec.write(generator, values, i);
+      generator.writeEndObject();
+    }
+    generator.writeEndArray();
+  }
+
+  /**
+   * <p>Creates, reads and writes the values of one kind of series</p>
+   */
+  protected interface Codec<V, E, S> {
+
+    /**
+     * @return name of the value's field in the serialized data points
+     */
+    String field();
+
+    V newValues(int size);
+
+    void read(JsonParser parser, V values, int index) throws IOException;
+
+    void write(JsonGenerator generator, V values, int index) throws IOException;
+
+    E get(long timestamp, V values, int index);
+
+    S create(long[] timestamps, V values);
+
+  }
+
+  public static class Serializer<S extends TimestampSeries<?, ?, S>> extends StdSerializer<S> {
+
+    protected Serializer(Class<S> type) {
+      super(type);
+    }
+
+    @Override
+    public void serialize(S series, JsonGenerator generator, SerializerProvider provider) throws IOException {
+      series.write(generator);
+    }
+
+  }
+
+  public static class Deserializer<V, S extends TimestampSeries<V, ?, S>> extends StdDeserializer<S> {
+
+    private final Codec<V, ?, S> codec;
+
+    protected Deserializer(Class<S> type, Codec<V, ?, S> codec) {
+      super(type);
+      this.codec = codec;
+    }
+
+    @Override
+    public S deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+      if (parser.getCurrentToken() != JsonToken.START_ARRAY) {
+        throw context.mappingException(handledType());
+      }
+      long[] timestamps = new long[64];
+      V values = codec.newValues(64);
+      int size = 0;
+      while (parser.nextToken() == JsonToken.START_OBJECT) {
+        if (size == timestamps.length) {
+          timestamps = Arrays.copyOf(timestamps, size * 2);
+          values = copyOf(values, size, size * 2);
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          final String field = parser.getCurrentName();
+          parser.nextToken();
+          if (field.equals("timestamp")) {
+            timestamps[size] = parser.getValueAsLong();
+          } else if (field.equals(codec.field())) {
+            codec.read(parser, values, size);
+          } else {
+            parser.skipChildren();
+          }
+        }
+        size++;
+      }
+      return codec.create(Arrays.copyOf(timestamps, size), copyOf(values, size, size));
+    }
+
+    private V copyOf(V values, int size, int length) {
+      final V copy = codec.newValues(length);
+      System.arraycopy(values, 0, copy, 0, size);
+      return copy;
+    }
+
+  }
+
+}
@@ -0,0 +1,47 @@
+package io.jenkins.plugins.services;
+
+import io.jenkins.plugins.models.*;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * <p>Non-blocking variant of <code>DatastoreService</code></p>
+ *
+ * <p>Each method returns as soon as the request has been sent to the datastore. The returned stage completes with
+ * the result, or exceptionally with a <code>ServiceException</code>, once the datastore answers.</p>
+ *
+ * @see DatastoreService
+ */
+public interface AsyncDatastoreService {
+
+  /**
+   * @see DatastoreService#search(SearchOptions)
+   */
+  CompletionStage<Plugins> searchAsync(SearchOptions searchOptions);
+
+  /**
+   * @see DatastoreService#getPlugin(String, Resolution)
+   */
+  CompletionStage<Plugin> getPluginAsync(String name, Resolution resolution);
+
+  /**
+   * @see DatastoreService#getSecurityWarnings(String, String)
+   */
+  CompletionStage<SecurityWarnings> getSecurityWarningsAsync(String name, String version);
+
+  /**
+   * @see DatastoreService#getLabels()
+   */
+  CompletionStage<Labels> getLabelsAsync();
+
+  /**
+   * @see DatastoreService#getMaintainers()
+   */
+  CompletionStage<Maintainers> getMaintainersAsync();
+
+  /**
+   * @see DatastoreService#getVersions()
+   */
+  CompletionStage<Versions> getVersionsAsync();
+
+}
@@ -14,7 +14,8 @@ import javax.inject.Singleton;
  * <p>Binds</p>
  * <ul>
  *   <li><code>DefaultConfigurationService</code> to <code>ConfigurationService</code>  as a <code>Singleton</code></li>
- *   <li><code>ElasticsearchDatastoreService</code> to <code>DatastoreService</code> as a <code>Singleton</code></li>
+ *   <li><code>ElasticsearchDatastoreService</code> to <code>DatastoreService</code> and
+ *   <code>AsyncDatastoreService</code> as a <code>Singleton</code></li>
  *   <li><code>HttpClientWikiService</code> to <code>WikiService</code> as a <code>Singleton</code></li>
  * </ul>
  *
@@ -26,7 +27,7 @@ public class Binder extends AbstractBinder {
   @Override
   protected void configure() {
     bind(DefaultConfigurationService.class).to(ConfigurationService.class).in(Singleton.class);
-    bind(ElasticsearchDatastoreService.class).to(DatastoreService.class).in(Singleton.class);
+    bind(ElasticsearchDatastoreService.class).to(DatastoreService.class).to(AsyncDatastoreService.class).in(Singleton.class);
     bind(HttpClientWikiService.class).to(WikiService.class).in(Singleton.class);
     bind(ElasticsearchPrepareDatastoreService.class).to(PrepareDatastoreService.class).in(Singleton.class);
   }
@@ -15,4 +15,23 @@ public interface ConfigurationService {
      */
   GeneratedPluginData getIndexData() throws ServiceException;
 
+  /**
+   * <p>Get the index data saved locally by the last successful <code>getIndexData</code></p>
+   *
+   * <p>A snapshot is only kept if one is configured. A following <code>getIndexData</code> only returns data that is
+   * newer than the snapshot.</p>
+   *
+   * @return GeneratedPluginData, null if no snapshot is configured or there is no usable snapshot
+   * @throws ServiceException in case something goes wrong
+   */
+  GeneratedPluginData getSnapshotData() throws ServiceException;
+
+  /**
+   * <p>Forget which data file the last <code>getIndexData</code> or <code>getSnapshotData</code> returned</p>
+   *
+   * <p>Called when that data couldn't be indexed, so the next <code>getIndexData</code> returns the data file again
+   * even if it hasn't changed.</p>
+   */
+  void invalidateIndexData();
+
 }
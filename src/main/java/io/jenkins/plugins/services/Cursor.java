@@ -0,0 +1,93 @@
+package io.jenkins.plugins.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.jenkins.plugins.commons.JsonObjectMapper;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>Opaque position in a sorted search, the sort values of the last plugin of the previous page</p>
+ *
+ * <p>The next page is everything sorted after these values, so a page costs the same however deep it is, unlike
+ * <code>page</code> which makes the datastore collect and sort every preceding result again. A null value stands for
+ * a plugin missing that sort field.</p>
+ */
+public final class Cursor {
+
+  private final SortBy sortBy;
+  private final List<Object> values;
+
+  public Cursor(SortBy sortBy, List<Object> values) {
+    this.sortBy = sortBy;
+    this.values = Collections.unmodifiableList(new ArrayList<>(values));
+  }
+
+  /**
+   * @param token Token returned by <code>value()</code>
+   * @return the cursor, null if <code>token</code> is blank
+   * @throws IllegalArgumentException if <code>token</code> isn't a cursor
+   */
+  public static Cursor parse(String token) {
+    if (StringUtils.isBlank(token)) {
+      return null;
+    }
+    try {
+      final JsonNode json = JsonObjectMapper.getObjectMapper().readTree(Base64.getUrlDecoder().decode(token.trim()));
+      final List<Object> values = new ArrayList<>();
+      for (JsonNode value : json.withArray("after")) {
+        if (value.isNull()) {
+          values.add(null);
+        } else if (value.isIntegralNumber()) {
+          values.add(value.longValue());
+        } else if (value.isNumber()) {
+          values.add(value.doubleValue());
+        } else if (value.isTextual()) {
+          values.add(value.textValue());
+        } else {
+          throw new IllegalArgumentException("Unexpected cursor value " + value);
+        }
+      }
+      return new Cursor(SortBy.fromString(json.path("sort").asText()), values);
+    } catch (Exception e) {
+      throw new IllegalArgumentException("Invalid cursor", e);
+    }
+  }
+
+  public SortBy getSortBy() {
+    return sortBy;
+  }
+
+  public List<Object> getValues() {
+    return values;
+  }
+
+  /**
+   * @return URL safe token to pass back as <code>cursor</code>
+   */
+  public String value() {
+    final ObjectNode json = JsonNodeFactory.instance.objectNode();
+    json.put("sort", sortBy.value());
+    final ArrayNode after = json.putArray("after");
+    for (Object value : values) {
+      if (value == null) {
+        after.addNull();
+      } else if (value instanceof Long || value instanceof Integer) {
+        after.add(((Number) value).longValue());
+      } else if (value instanceof Number) {
+        after.add(((Number) value).doubleValue());
+      } else {
+        after.add(value.toString());
+      }
+    }
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(json.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+}
@@ -26,6 +26,27 @@ public interface DatastoreService {
    */
   Plugin getPlugin(String name) throws ServiceException;
 
+  /**
+   * <p>Get a plugin by name with its installation history downsampled to <code>resolution</code></p>
+   *
+   * @param name Plugin name
+   * @param resolution How much installation history to return
+   * @return matching plugin
+   * @throws ServiceException in case something goes wrong
+   * @see Resolution
+   */
+  Plugin getPlugin(String name, Resolution resolution) throws ServiceException;
+
+  /**
+   * <p>Get the security warnings of a plugin and whether they affect <code>version</code></p>
+   *
+   * @param name Plugin name
+   * @param version Plugin version to check
+   * @return security warnings of the plugin, empty if it has none
+   * @throws ServiceException in case something goes wrong
+   */
+  SecurityWarnings getSecurityWarnings(String name, String version) throws ServiceException;
+
   /**
    * <p>Get unique categories for the application</p>
    *
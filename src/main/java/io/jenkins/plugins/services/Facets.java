@@ -0,0 +1,72 @@
+package io.jenkins.plugins.services;
+
+import io.jenkins.plugins.commons.JsonObjectMapper;
+import io.jenkins.plugins.models.Labels;
+import io.jenkins.plugins.models.Maintainers;
+import io.jenkins.plugins.models.Versions;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * <p>Immutable snapshot of the labels, maintainers and versions of one generation of the data</p>
+ *
+ * <p>The facets only change when the data does, so they are computed once after the datastore is populated instead
+ * of on every request. Each facet is also serialized up front so endpoints can return the bytes as they are.</p>
+ *
+ * @see PrepareDatastoreService#getFacets()
+ */
+public final class Facets {
+
+  private final LocalDateTime generation;
+  private final Labels labels;
+  private final Maintainers maintainers;
+  private final Versions versions;
+  private final byte[] labelsJson;
+  private final byte[] maintainersJson;
+  private final byte[] versionsJson;
+
+  public Facets(LocalDateTime generation, Labels labels, Maintainers maintainers, Versions versions) throws IOException {
+    this.generation = generation;
+    this.labels = labels;
+    this.maintainers = maintainers;
+    this.versions = versions;
+    this.labelsJson = JsonObjectMapper.getObjectMapper().writeValueAsBytes(labels);
+    this.maintainersJson = JsonObjectMapper.getObjectMapper().writeValueAsBytes(maintainers);
+    this.versionsJson = JsonObjectMapper.getObjectMapper().writeValueAsBytes(versions);
+  }
+
+  /**
+   * @return generation the facets were computed for, null if unknown
+   */
+  public LocalDateTime getGeneration() {
+    return generation;
+  }
+
+  public Labels getLabels() {
+    return labels;
+  }
+
+  public Maintainers getMaintainers() {
+    return maintainers;
+  }
+
+  public Versions getVersions() {
+    return versions;
+  }
+
+  // The serialized facets are shared, callers must not modify them
+
+  public byte[] getLabelsJson() {
+    return labelsJson;
+  }
+
+  public byte[] getMaintainersJson() {
+    return maintainersJson;
+  }
+
+  public byte[] getVersionsJson() {
+    return versionsJson;
+  }
+
+}
@@ -0,0 +1,161 @@
+package io.jenkins.plugins.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.jenkins.plugins.commons.JsonObjectMapper;
+import io.jenkins.plugins.models.Plugin;
+import io.jenkins.plugins.models.Plugins;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.*;
+
+/**
+ * <p>Which properties of each plugin a search returns</p>
+ *
+ * <p>Becomes <code>_source</code> filtering of the search, so the datastore only fetches and returns the selected
+ * properties. <code>project</code> then leaves the unselected ones out of the response instead of sending them as
+ * null. <code>name</code> is always returned.</p>
+ *
+ * <p>Besides property names <code>fields</code> accepts the presets <code>card</code>, the properties shown in a
+ * plugin listing, and <code>full</code>, every property.</p>
+ */
+public final class Fields {
+
+  /**
+   * <p>Every property, no filtering</p>
+   */
+  public static final Fields ALL = new Fields(null, Collections.emptySet());
+
+  private static final String NAME = "name";
+
+  private static final Set<String> PROPERTIES = findProperties();
+
+  private static final Map<String, Set<String>> PRESETS;
+
+  static {
+    final Map<String, Set<String>> presets = new HashMap<>();
+    presets.put("card", new TreeSet<>(Arrays.asList(
+      "categories", "excerpt", "firstRelease", "labels", "maintainers", NAME, "releaseTimestamp", "requiredCore",
+      "stats", "title", "version"
+    )));
+    presets.put("full", PROPERTIES);
+    PRESETS = Collections.unmodifiableMap(presets);
+  }
+
+  // Null for every property
+  private final SortedSet<String> includes;
+  private final SortedSet<String> excludes;
+
+  private Fields(SortedSet<String> includes, Set<String> excludes) {
+    this.includes = includes;
+    this.excludes = new TreeSet<>(excludes);
+  }
+
+  /**
+   * <p>Parse the <code>fields</code> and <code>exclude</code> parameters, each value may be a comma separated
+   * list</p>
+   *
+   * @param fields Properties or presets to return, all properties if empty
+   * @param exclude Properties to leave out
+   * @return the selection
+   * @throws IllegalArgumentException if a value isn't a property of <code>Plugin</code> or a preset
+   */
+  public static Fields parse(Collection<String> fields, Collection<String> exclude) {
+    final Set<String> excludes = split(exclude);
+    for (String property : excludes) {
+      if (!PROPERTIES.contains(property)) {
+        throw new IllegalArgumentException(String.format("Unknown field '%s'", property));
+      }
+    }
+    excludes.remove(NAME);
+    SortedSet<String> includes = new TreeSet<>();
+    for (String field : split(fields)) {
+      if (PRESETS.containsKey(field)) {
+        includes.addAll(PRESETS.get(field));
+      } else if (PROPERTIES.contains(field)) {
+        includes.add(field);
+      } else {
+        throw new IllegalArgumentException(String.format("Unknown field or preset '%s'", field));
+      }
+    }
+    if (includes.isEmpty() || includes.containsAll(PROPERTIES)) {
+      includes = null;
+    } else {
+      includes.add(NAME);
+    }
+    return includes == null && excludes.isEmpty() ? ALL : new Fields(includes, excludes);
+  }
+
+  /**
+   * @return properties to fetch, null for every property
+   */
+  public String[] getIncludes() {
+    return includes != null ? includes.toArray(new String[includes.size()]) : null;
+  }
+
+  /**
+   * @return properties not to fetch, null if none
+   */
+  public String[] getExcludes() {
+    return !excludes.isEmpty() ? excludes.toArray(new String[excludes.size()]) : null;
+  }
+
+  public boolean isAll() {
+    return includes == null && excludes.isEmpty();
+  }
+
+  /**
+   * @return canonical form, the same for selections of the same properties
+   */
+  public String value() {
+    return String.format("%s-%s", includes != null ? String.join(",", includes) : "*", String.join(",", excludes));
+  }
+
+  /**
+   * <p>Serialize <code>plugins</code> with only the selected properties of each plugin</p>
+   *
+   * <p>Everywhere else <code>Plugin</code> is serialized with every property, null or not.</p>
+   *
+   * @return JSON of <code>plugins</code>, null if <code>plugins</code> is null
+   */
+  public JsonNode project(Plugins plugins) {
+    if (plugins == null) {
+      return null;
+    }
+    final ObjectNode json = JsonObjectMapper.getObjectMapper().valueToTree(plugins);
+    for (JsonNode plugin : json.path("plugins")) {
+      if (includes != null) {
+        ((ObjectNode) plugin).retain(includes);
+      }
+      ((ObjectNode) plugin).remove(excludes);
+    }
+    return json;
+  }
+
+  private static Set<String> split(Collection<String> values) {
+    final Set<String> result = new TreeSet<>();
+    if (values != null) {
+      for (String value : values) {
+        for (String part : StringUtils.split(StringUtils.defaultString(value), ',')) {
+          if (StringUtils.isNotBlank(part)) {
+            result.add(part.trim());
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  private static Set<String> findProperties() {
+    final ObjectMapper mapper = JsonObjectMapper.getObjectMapper();
+    final Set<String> properties = new TreeSet<>();
+    for (BeanPropertyDefinition property : mapper.getSerializationConfig()
+      .introspect(mapper.constructType(Plugin.class)).findProperties()) {
+      properties.add(property.getName());
+    }
+    return Collections.unmodifiableSet(properties);
+  }
+
+}
@@ -14,6 +14,15 @@ public interface PrepareDatastoreService {
    */
   void populateDataStore() throws ServiceException;
 
+  /**
+   * <p>Populate the datastore from the locally saved snapshot of the data and check for newer data in the
+   * background</p>
+   *
+   * @return whether the datastore was populated from the snapshot, false if no snapshot is configured
+   * @throws ServiceException in case something goes wrong
+   */
+  boolean populateDataStoreFromSnapshot() throws ServiceException;
+
   /**
    * <p>Schedule population of datastore in the future</p>
    *
@@ -26,4 +35,23 @@ public interface PrepareDatastoreService {
    */
   LocalDateTime getCurrentCreatedAt();
 
+  /**
+   * <p>Generation of the data being served, changes whenever the datastore is populated with new data</p>
+   *
+   * <p>Unlike <code>getCurrentCreatedAt</code> this doesn't query the datastore, so it can be called on every
+   * request.</p>
+   *
+   * @return the time the current data was created, null if the datastore hasn't been populated yet
+   */
+  LocalDateTime getCurrentGeneration();
+
+  /**
+   * <p>Labels, maintainers and versions of the data being served</p>
+   *
+   * <p>Computed once whenever the datastore is populated and published together with the new data.</p>
+   *
+   * @return facets of the current generation, null if they haven't been computed
+   */
+  Facets getFacets();
+
 }
@@ -0,0 +1,93 @@
+package io.jenkins.plugins.services;
+
+import io.jenkins.plugins.models.Stats;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.function.IntToLongFunction;
+
+/**
+ * <p>Enum specifying how much installation history is returned with each plugin</p>
+ *
+ * <p>The installation series are downsampled after they are read from the datastore and before they are
+ * serialized, so list pages that only draw a sparkline don't have to transfer the full monthly history.</p>
+ */
+public enum Resolution {
+
+  /**
+   * <p>Every monthly data point</p>
+   */
+  FULL,
+
+  /**
+   * <p>The last data point of every year, which for the current year is the latest data point</p>
+   */
+  YEARLY,
+
+  /**
+   * <p>The last twelve data points</p>
+   */
+  LAST12;
+
+  public String value() {
+    return name().toLowerCase();
+  }
+
+  public static Resolution fromString(String s) {
+    return valueOf(s.toUpperCase());
+  }
+
+  /**
+   * <p>Downsample <code>installations</code> and <code>installationsPercentage</code> of <code>stats</code></p>
+   *
+   * @param stats Stats to downsample, may be null
+   * @return new stats with the downsampled series, or <code>stats</code> itself for <code>FULL</code>
+   */
+  public Stats apply(Stats stats) {
+    if (this == FULL || stats == null) {
+      return stats;
+    }
+    return new Stats(
+      stats.getInstallations() != null
+        ? stats.getInstallations().select(indices(stats.getInstallations().size(), stats.getInstallations()::getTimestamp))
+        : null,
+      stats.getInstallationsPercentage() != null
+        ? stats.getInstallationsPercentage().select(indices(stats.getInstallationsPercentage().size(), stats.getInstallationsPercentage()::getTimestamp))
+        : null,
+      stats.getInstallationsPerVersion(),
+      stats.getInstallationsPercentagePerVersion(),
+      stats.getCurrentInstalls(),
+      stats.getTrend()
+    );
+  }
+
+  // Series are sorted by timestamp
+  private int[] indices(int size, IntToLongFunction timestamps) {
+    switch (this) {
+      case YEARLY:
+        final int[] indices = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+          if (i == size - 1 || year(timestamps.applyAsLong(i)) != year(timestamps.applyAsLong(i + 1))) {
+            indices[count++] = i;
+          }
+        }
+        return Arrays.copyOf(indices, count);
+      case LAST12:
+        final int from = Math.max(0, size - 12);
+        final int[] last = new int[size - from];
+        for (int i = 0; i < last.length; i++) {
+          last[i] = from + i;
+        }
+        return last;
+      default:
+        throw new IllegalStateException("Unsupported resolution " + this);
+    }
+  }
+
+  private static int year(long timestamp) {
+    return Instant.ofEpochMilli(timestamp).atOffset(ZoneOffset.UTC).getYear();
+  }
+
+}
@@ -23,6 +23,9 @@ public class SearchOptions {
     private String core;
     private Integer limit;
     private Integer page;
+    private Resolution resolution;
+    private Fields fields;
+    private Cursor cursor;
 
     public Builder() {
       this.query = null;
@@ -33,6 +36,9 @@ public class SearchOptions {
       this.core = null;
       this.limit = 50;
       this.page = 1;
+      this.resolution = Resolution.FULL;
+      this.fields = Fields.ALL;
+      this.cursor = null;
     }
 
     public Builder withQuery(String query) {
@@ -108,10 +114,37 @@ public class SearchOptions {
       return this;
     }
 
+    public Builder withResolution(Resolution resolution) {
+      this.resolution = ObjectUtils.defaultIfNull(resolution, Resolution.FULL);
+      return this;
+    }
+
+    public Builder withFields(Fields fields) {
+      this.fields = ObjectUtils.defaultIfNull(fields, Fields.ALL);
+      return this;
+    }
+
+    public Builder withCursor(Cursor cursor) {
+      this.cursor = cursor;
+      return this;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor was created for another sort or the sort doesn't support cursors
+     */
     public SearchOptions build() {
-      return new SearchOptions(
-        query, sortBy, categories, labels, maintainers, core, limit, page
+      final SearchOptions searchOptions = new SearchOptions(
+        query, sortBy, categories, labels, maintainers, core, limit, page, resolution, fields, cursor
       );
+      if (cursor != null) {
+        if (cursor.getSortBy() != sortBy) {
+          throw new IllegalArgumentException(String.format("Cursor is for sort %s", cursor.getSortBy().value()));
+        }
+        if (!searchOptions.supportsCursor()) {
+          throw new IllegalArgumentException("Cursor isn't supported when sorting by relevance of a query");
+        }
+      }
+      return searchOptions;
     }
 
   }
@@ -124,9 +157,12 @@ public class SearchOptions {
   private String core;
   private Integer limit;
   private Integer page;
+  private Resolution resolution;
+  private Fields fields;
+  private Cursor cursor;
 
   private SearchOptions(String query, SortBy sortBy, Set<String> categories, Set<String> labels, Set<String> maintainers,
-                       String core, Integer limit, Integer page) {
+                       String core, Integer limit, Integer page, Resolution resolution, Fields fields, Cursor cursor) {
     this.query = query;
     this.sortBy = sortBy;
     this.categories = categories;
@@ -135,6 +171,9 @@ public class SearchOptions {
     this.core = core;
     this.limit = limit;
     this.page = page;
+    this.resolution = resolution;
+    this.fields = fields;
+    this.cursor = cursor;
   }
 
   public String getQuery() {
@@ -169,6 +208,29 @@ public class SearchOptions {
     return page;
   }
 
+  public Resolution getResolution() {
+    return resolution;
+  }
+
+  public Fields getFields() {
+    return fields;
+  }
+
+  /**
+   * @return position to continue after instead of <code>page</code>, null to use <code>page</code>
+   */
+  public Cursor getCursor() {
+    return cursor;
+  }
+
+  /**
+   * <p>Scores can't be filtered on, so a search sorted by relevance of a query can only be paged with
+   * <code>page</code></p>
+   */
+  public boolean supportsCursor() {
+    return sortBy != SortBy.RELEVANCE || query == null;
+  }
+
   public Boolean hasFilters() {
     return !getMaintainers().isEmpty() || !getCategories().isEmpty()
       || getCore() != null || !getLabels().isEmpty();
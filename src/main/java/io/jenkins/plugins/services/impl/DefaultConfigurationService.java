@@ -1,10 +1,17 @@
 package io.jenkins.plugins.services.impl;
 
-import io.jenkins.plugins.commons.JsonObjectMapper;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import io.jenkins.plugins.commons.DataFormat;
 import io.jenkins.plugins.models.GeneratedPluginData;
 import io.jenkins.plugins.services.ConfigurationService;
 import io.jenkins.plugins.services.ServiceException;
-import org.apache.commons.io.FileUtils;
+import io.jenkins.plugins.utils.ConfigUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.io.input.TeeInputStream;
+import org.apache.commons.io.output.NullOutputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpStatus;
@@ -17,8 +24,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
-import java.nio.charset.StandardCharsets;
-import java.util.stream.Collectors;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.GZIPInputStream;
 
 /**
@@ -52,31 +61,40 @@ public class DefaultConfigurationService implements ConfigurationService {
         return null;
       }
       final HttpGet get = new HttpGet(url);
-      final CloseableHttpResponse response = httpClient.execute(get);
-      if (response.getStatusLine().getStatusCode() == HttpStatus.SC_OK) {
+      try (final CloseableHttpResponse response = httpClient.execute(get)) {
+        if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
+          logger.error("Data file not found");
+          throw new RuntimeException("Data file not found");
+        }
         final HttpEntity entity = response.getEntity();
-        final InputStream inputStream = entity.getContent();
-        final File dataFile = File.createTempFile("plugins", ".json.gzip");
-        FileUtils.copyToFile(inputStream, dataFile);
-        final String data = readGzipFile(dataFile);
-        final GeneratedPluginData generated = JsonObjectMapper.getObjectMapper().readValue(data, GeneratedPluginData.class);
+        final DataFormat format = DataFormat.detect(entity.getContentType() != null ? entity.getContentType().getValue() : null, url);
+        final ModifyType responseModifyType;
+        final String responseModifyValue;
         if (response.containsHeader("ETag")) {
-          modifyType = ModifyType.ETAG;
-          modifyValue = response.getLastHeader("ETag").getValue();
-          logger.info(String.format("Using ETag [%s]", modifyValue));
+          responseModifyType = ModifyType.ETAG;
+          responseModifyValue = response.getLastHeader("ETag").getValue();
         } else if (response.containsHeader("Last-Modified")) {
-          modifyType = ModifyType.LAST_MODIFIED;
-          modifyValue = response.getLastHeader("Last-Modified").getValue();
-          logger.info(String.format("Using Last-Modified [%s]", modifyValue));
+          responseModifyType = ModifyType.LAST_MODIFIED;
+          responseModifyValue = response.getLastHeader("Last-Modified").getValue();
         } else {
-          modifyType = ModifyType.NONE;
-          modifyValue = null;
-          logger.info("ETag and Last-Modified are not supported by the server");
+          responseModifyType = ModifyType.NONE;
+          responseModifyValue = null;
+        }
+        final GeneratedPluginData generated = readDataFile(entity.getContent(), url, format, responseModifyType, responseModifyValue);
+        modifyType = responseModifyType;
+        modifyValue = responseModifyValue;
+        switch (modifyType) {
+          case ETAG:
+            logger.info(String.format("Using ETag [%s]", modifyValue));
+            break;
+          case LAST_MODIFIED:
+            logger.info(String.format("Using Last-Modified [%s]", modifyValue));
+            break;
+          default:
+            logger.info("ETag and Last-Modified are not supported by the server");
+            break;
         }
         return generated;
-      } else {
-        logger.error("Data file not found");
-        throw new RuntimeException("Data file not found");
       }
     } catch (Exception e) {
       logger.error("Problem getting data file", e);
@@ -90,6 +108,55 @@ public class DefaultConfigurationService implements ConfigurationService {
     }
   }
 
+  @Override
+  public GeneratedPluginData getSnapshotData() throws ServiceException {
+    final File snapshot = getSnapshotFile();
+    if (snapshot == null) {
+      logger.info("No plugin data snapshot configured");
+      return null;
+    }
+    final File metadataFile = getSnapshotMetadataFile(snapshot);
+    if (!snapshot.isFile() || !metadataFile.isFile()) {
+      logger.info(String.format("No plugin data snapshot at %s", snapshot));
+      return null;
+    }
+    try {
+      final Properties metadata = new Properties();
+      try (final InputStream inputStream = new FileInputStream(metadataFile)) {
+        metadata.load(inputStream);
+      }
+      if (!getDataFileUrl().equals(metadata.getProperty("url"))) {
+        logger.info(String.format("Plugin data snapshot at %s was downloaded from a different URL", snapshot));
+        return null;
+      }
+      final DataFormat format = DataFormat.fromString(metadata.getProperty("format"));
+      final DecodedPluginData decoded;
+      try (final InputStream inputStream = new FileInputStream(snapshot)) {
+        decoded = decode(inputStream, format, new NullOutputStream());
+      }
+      if (!decoded.checksum.equals(metadata.getProperty("sha256"))) {
+        logger.warn(String.format("Plugin data snapshot at %s doesn't match its checksum", snapshot));
+        return null;
+      }
+      modifyType = ModifyType.valueOf(metadata.getProperty("modifyType"));
+      modifyValue = metadata.getProperty("modifyValue");
+      logger.info(String.format("Loaded plugin data snapshot from %s", snapshot));
+      return decoded.data;
+    } catch (Exception e) {
+      logger.error(String.format("Problem reading plugin data snapshot at %s", snapshot), e);
+      throw new ServiceException("Problem reading plugin data snapshot", e);
+    }
+  }
+
+  @Override
+  public void invalidateIndexData() {
+    if (modifyType != null) {
+      logger.info("Plugin data wasn't indexed, the data file will be downloaded again");
+    }
+    modifyType = null;
+    modifyValue = null;
+  }
+
   private String getDataFileUrl() {
     if (System.getenv().containsKey("DATA_FILE_URL")) {
       final String url = StringUtils.trimToNull(System.getenv("DATA_FILE_URL"));
@@ -106,15 +173,89 @@ public class DefaultConfigurationService implements ConfigurationService {
     }
   }
 
-  private String readGzipFile(final File file) {
-    try(final BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(file)), StandardCharsets.UTF_8))) {
-      return reader.lines().collect(Collectors.joining());
+  /**
+   * <p>Decode the data file straight from the response and, if <code>DATA_FILE_COPY</code> is configured, save it as
+   * the new snapshot</p>
+   *
+   * <p>The snapshot and its metadata only replace the previous ones once the whole file has been decoded.</p>
+   */
+  private GeneratedPluginData readDataFile(final InputStream content, final String url, final DataFormat format,
+                                           final ModifyType responseModifyType, final String responseModifyValue) throws IOException {
+    final File snapshot = getSnapshotFile();
+    if (snapshot == null) {
+      return decode(content, format, new NullOutputStream()).data;
+    }
+    final File tempSnapshot = new File(snapshot.getParentFile(), snapshot.getName() + ".tmp");
+    Files.createDirectories(snapshot.getParentFile().toPath());
+    try {
+      final DecodedPluginData decoded;
+      try (final OutputStream copyStream = new BufferedOutputStream(new FileOutputStream(tempSnapshot))) {
+        decoded = decode(content, format, copyStream);
+      }
+      final Properties metadata = new Properties();
+      metadata.setProperty("url", url);
+      metadata.setProperty("format", format.name());
+      metadata.setProperty("sha256", decoded.checksum);
+      metadata.setProperty("modifyType", responseModifyType.name());
+      if (responseModifyValue != null) {
+        metadata.setProperty("modifyValue", responseModifyValue);
+      }
+      final File metadataFile = getSnapshotMetadataFile(snapshot);
+      final File tempMetadataFile = new File(metadataFile.getParentFile(), metadataFile.getName() + ".tmp");
+      try (final OutputStream outputStream = new FileOutputStream(tempMetadataFile)) {
+        metadata.store(outputStream, "Plugin data snapshot");
+      }
+      // Remove the old metadata first so a crash in between never pairs it with the new snapshot
+      Files.deleteIfExists(metadataFile.toPath());
+      Files.move(tempSnapshot.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      Files.move(tempMetadataFile.toPath(), metadataFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      logger.info(String.format("Saved plugin data snapshot to %s", snapshot));
+      return decoded.data;
+    } finally {
+      Files.deleteIfExists(tempSnapshot.toPath());
+    }
+  }
+
+  /**
+   * <p>Decode a gzip'd data file from <code>content</code></p>
+   *
+   * <p>The compressed bytes are hashed on their way to <code>GZIPInputStream</code> and also written to
+   * <code>copyStream</code>.</p>
+   */
+  private DecodedPluginData decode(final InputStream content, final DataFormat format, final OutputStream copyStream) {
+    logger.info(String.format("Reading plugin data as %s", format));
+    final long start = System.nanoTime();
+    try {
+      final CountingInputStream countingStream = new CountingInputStream(new TeeInputStream(content, copyStream));
+      final HashingInputStream hashingStream = new HashingInputStream(Hashing.sha256(), countingStream);
+      final GeneratedPluginData generated;
+      try (final InputStream inputStream = new GZIPInputStream(new BufferedInputStream(new CloseShieldInputStream(hashingStream)))) {
+        generated = format.getObjectMapper().readValue(inputStream, GeneratedPluginData.class);
+      }
+      // Jackson stops at the end of the document, drain the rest so the checksum and copy cover the whole file
+      IOUtils.copy(hashingStream, new NullOutputStream());
+      final String checksum = hashingStream.hash().toString();
+      logger.info(String.format("Decoded %d bytes of plugin data in %d ms - sha256 %s", countingStream.getByteCount(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), checksum));
+      return new DecodedPluginData(generated, checksum);
     } catch (Exception e) {
-      logger.error("Problem decompressing plugin data", e);
-      throw new RuntimeException("Problem decompressing plugin data", e);
+      logger.error("Problem decoding plugin data", e);
+      throw new RuntimeException("Problem decoding plugin data", e);
     }
   }
 
+  /**
+   * @return file named by <code>DATA_FILE_COPY</code>, null if it isn't set and no snapshot is kept
+   */
+  private File getSnapshotFile() {
+    final String snapshot = StringUtils.trimToNull(ConfigUtils.getString("DATA_FILE_COPY", "data.file.copy", null));
+    return snapshot != null ? new File(snapshot).getAbsoluteFile() : null;
+  }
+
+  private File getSnapshotMetadataFile(File snapshot) {
+    return new File(snapshot.getParentFile(), snapshot.getName() + ".properties");
+  }
+
   private boolean hasPluginDataChanged(CloseableHttpClient httpClient, String url) {
     if (modifyType == null || modifyType == ModifyType.NONE) {
       return true;
@@ -139,4 +280,16 @@ public class DefaultConfigurationService implements ConfigurationService {
     }
   }
 
+  private static class DecodedPluginData {
+
+    private final GeneratedPluginData data;
+    private final String checksum;
+
+    private DecodedPluginData(GeneratedPluginData data, String checksum) {
+      this.data = data;
+      this.checksum = checksum;
+    }
+
+  }
+
 }
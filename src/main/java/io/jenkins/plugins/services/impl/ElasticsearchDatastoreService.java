@@ -1,24 +1,34 @@
 package io.jenkins.plugins.services.impl;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.jenkins.plugins.commons.JsonObjectMapper;
+import io.jenkins.plugins.commons.SecurityWarningIndex;
 import io.jenkins.plugins.datastore.ElasticsearchTransformer;
 import io.jenkins.plugins.models.*;
+import io.jenkins.plugins.services.AsyncDatastoreService;
+import io.jenkins.plugins.services.Cursor;
 import io.jenkins.plugins.services.DatastoreService;
+import io.jenkins.plugins.services.Facets;
+import io.jenkins.plugins.services.PrepareDatastoreService;
+import io.jenkins.plugins.services.Resolution;
 import io.jenkins.plugins.services.SearchOptions;
 import io.jenkins.plugins.services.ServiceException;
+import io.jenkins.plugins.utils.ConfigUtils;
 import org.apache.commons.io.FileUtils;
-import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRequestBuilder;
+import org.elasticsearch.action.ActionResponse;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.Client;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.aggregations.AggregationBuilders;
-import org.elasticsearch.search.aggregations.bucket.MultiBucketsAggregation;
-import org.elasticsearch.search.aggregations.bucket.nested.InternalNested;
-import org.elasticsearch.search.aggregations.bucket.terms.StringTerms;
+import org.elasticsearch.search.aggregations.bucket.filter.Filter;
 import org.elasticsearch.search.sort.SortBuilders;
-import org.elasticsearch.search.sort.SortOrder;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.slf4j.Logger;
@@ -29,40 +39,127 @@ import javax.inject.Inject;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 /**
- * <p>Implementation of <code>DatastoreService</code> powered by Elasticsearch</p>
+ * <p>Implementation of <code>DatastoreService</code> and <code>AsyncDatastoreService</code> powered by
+ * Elasticsearch</p>
+ *
+ * <p>Requests are sent with an <code>ActionListener</code> so no thread waits on Elasticsearch, the blocking methods
+ * just wait for their asynchronous counterpart.</p>
  *
  * @see io.jenkins.plugins.datastore.ElasticsearchClientFactory
  */
-public class ElasticsearchDatastoreService implements DatastoreService {
+public class ElasticsearchDatastoreService implements DatastoreService, AsyncDatastoreService {
 
   private Logger logger = LoggerFactory.getLogger(ElasticsearchDatastoreService.class);
 
+  private static final TimeValue SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+  private static final String TOTAL_AGGREGATION = "total";
+  // Number of search results kept per generation, 0 disables the cache
+  private static final int SEARCH_CACHE_SIZE = ConfigUtils.getInt("SEARCH_CACHE_SIZE", "search.cache.size", 1000);
+
   @Inject
   private Client esClient;
 
+  @Inject
+  private PrepareDatastoreService prepareDatastoreService;
+
   private Categories categories;
-  private  Map<String, String> labelTitleMap;
+
+  // Index of security warnings and the generation it was built from
+  private volatile LocalDateTime securityWarningGeneration;
+  private volatile SecurityWarningIndex securityWarningIndex;
+
+  private volatile SearchCache searchCache;
 
   @PostConstruct
   public void postConstruct() {
     this.categories = buildCategories();
-    this.labelTitleMap = buildLabelTitleMap();
   }
 
   @Override
   public Plugins search(SearchOptions searchOptions) throws ServiceException {
+    return join(searchAsync(searchOptions));
+  }
+
+  @Override
+  public CompletionStage<Plugins> searchAsync(SearchOptions searchOptions) {
+    final LocalDateTime generation = prepareDatastoreService.getCurrentGeneration();
+    if (generation == null || SEARCH_CACHE_SIZE <= 0) {
+      return doSearch(searchOptions);
+    }
+    SearchCache cache = searchCache;
+    if (cache == null || !cache.generation.equals(generation)) {
+      // Replacing the whole cache drops every result of the previous generation at once
+      cache = new SearchCache(generation);
+      searchCache = cache;
+      logger.info(String.format("Search cache reset for generation %s", generation));
+    }
+    // Results are cached as futures so concurrent identical searches share one request, failures aren't kept
+    final List<Object> key = cacheKey(searchOptions);
+    final ConcurrentMap<List<Object>, CompletableFuture<Plugins>> results = cache.results.asMap();
+    final CompletableFuture<Plugins> future = new CompletableFuture<>();
+    final CompletableFuture<Plugins> existing = results.putIfAbsent(key, future);
+    if (existing != null) {
+      return existing;
+    }
+    doSearch(searchOptions).whenComplete((plugins, e) -> {
+      if (e != null) {
+        results.remove(key, future);
+        future.completeExceptionally(e);
+      } else {
+        future.complete(plugins);
+      }
+    });
+    return future;
+  }
+
+  /**
+   * <p>Key of <code>searchOptions</code> that is the same for options that produce the same result</p>
+   *
+   * <p>Only the order of categories, labels and maintainers is ignored, every other option is compared exactly as
+   * given, e.g. the query as trimmed by <code>SearchOptions.Builder</code>. Options are kept apart in a list so no
+   * value can run into the next one.</p>
+   */
+  private static List<Object> cacheKey(SearchOptions searchOptions) {
+    return Arrays.asList(
+      searchOptions.getQuery(),
+      searchOptions.getSortBy(),
+      new TreeSet<>(searchOptions.getCategories()),
+      new TreeSet<>(searchOptions.getLabels()),
+      new TreeSet<>(searchOptions.getMaintainers()),
+      searchOptions.getCore(),
+      searchOptions.getLimit(),
+      searchOptions.getPage(),
+      searchOptions.getResolution(),
+      searchOptions.getFields().value(),
+      searchOptions.getCursor() != null ? searchOptions.getCursor().value() : null);
+  }
+
+  private CompletableFuture<Plugins> doSearch(SearchOptions searchOptions) {
     try {
+      final Cursor cursor = searchOptions.getCursor();
+      final int limit = searchOptions.getLimit();
+      final List<SortKey> sortKeys = SortKey.forSortBy(searchOptions.getSortBy());
+      // A cursor replaces the offset, the results are then the first page of the plugins after it
       final SearchRequestBuilder requestBuilder = esClient.prepareSearch("plugins")
-        .setFrom((searchOptions.getPage() - 1) * searchOptions.getLimit())
-        .setSize(searchOptions.getLimit());
+        .setFrom(cursor != null ? 0 : (searchOptions.getPage() - 1) * limit)
+        .setSize(limit);
+      if (!searchOptions.getFields().isAll()) {
+        requestBuilder.setFetchSource(searchOptions.getFields().getIncludes(), searchOptions.getFields().getExcludes());
+      }
       final BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery();
       if (searchOptions.getQuery() != null) {
         queryBuilder.must(QueryBuilders.boolQuery()
@@ -116,53 +213,149 @@ public class ElasticsearchDatastoreService implements DatastoreService {
         queryBuilder.filter(filter);
       }
       requestBuilder.setQuery(queryBuilder);
-      if (searchOptions.getSortBy() != null) {
-        switch (searchOptions.getSortBy()) {
-          case FIRST_RELEASE:
-            requestBuilder.addSort(SortBuilders.fieldSort("firstRelease").order(SortOrder.DESC));
-          case INSTALLED:
-            requestBuilder.addSort(SortBuilders.fieldSort("stats.currentInstalls").setNestedPath("stats").order(SortOrder.DESC));
-            break;
-          case NAME:
-            requestBuilder.addSort(SortBuilders.fieldSort("name.raw").order(SortOrder.ASC));
-            break;
-          case TITLE:
-            requestBuilder.addSort(SortBuilders.fieldSort("title.raw").order(SortOrder.ASC));
-            break;
-          case TREND:
-            requestBuilder.addSort(SortBuilders.fieldSort("stats.trend").setNestedPath("stats").order(SortOrder.DESC));
-            break;
-          case UPDATED:
-            requestBuilder.addSort(SortBuilders.fieldSort("releaseTimestamp").order(SortOrder.DESC));
-            break;
-          default: break;
-        }
+      if (cursor != null) {
+        // As a post filter the cursor only narrows the hits, the aggregation still counts every match of the query
+        requestBuilder.setPostFilter(SortKey.after(sortKeys, cursor.getValues()));
+        requestBuilder.addAggregation(AggregationBuilders.filter(TOTAL_AGGREGATION).filter(QueryBuilders.matchAllQuery()));
       }
-      final SearchResponse response = requestBuilder.execute().get();
-      final long total = response.getHits().getTotalHits();
-      final long pages = (total + searchOptions.getLimit() - 1) / searchOptions.getLimit();
-      if (response.getHits().getHits().length == 0) {
-        return new Plugins(Collections.emptyList(), searchOptions.getPage(), 0, 0, searchOptions.getLimit());
+      // Only relevance of a query is ordered by score, every other sort is by fields alone so a cursor can follow it
+      if (!searchOptions.supportsCursor()) {
+        requestBuilder.addSort(SortBuilders.scoreSort());
       }
-      return new Plugins(
-        ElasticsearchTransformer.transformHits(response.getHits()),
-        searchOptions.getPage(), pages, total, searchOptions.getLimit()
-      );
+      sortKeys.forEach(key -> requestBuilder.addSort(key.toSortBuilder()));
+      return execute(requestBuilder, "Problem executing ES query", response -> {
+        final SearchHit[] hits = response.getHits().getHits();
+        final long total;
+        final int page;
+        if (cursor != null) {
+          // Counted as if the plugins before the cursor had been paged through with the same limit
+          final long remaining = response.getHits().getTotalHits();
+          total = ((Filter) response.getAggregations().get(TOTAL_AGGREGATION)).getDocCount();
+          page = (int) ((total - remaining) / limit) + 1;
+        } else if (hits.length == 0) {
+          return new Plugins(Collections.emptyList(), searchOptions.getPage(), 0, 0, limit);
+        } else {
+          total = response.getHits().getTotalHits();
+          page = searchOptions.getPage();
+        }
+        final long pages = (total + limit - 1) / limit;
+        final List<Plugin> plugins = ElasticsearchTransformer.transformHits(response.getHits());
+        plugins.forEach(plugin -> plugin.setStats(searchOptions.getResolution().apply(plugin.getStats())));
+        final Plugins result = new Plugins(plugins, page, pages, total, limit);
+        // A short page is the last one
+        if (searchOptions.supportsCursor() && hits.length == limit) {
+          result.setCursor(new Cursor(searchOptions.getSortBy(), SortKey.sortValues(hits[hits.length - 1])).value());
+        }
+        return result;
+      });
     } catch (Exception e) {
-      logger.error("Problem executing, ES query", e);
-      throw new ServiceException("Problem executing ES query", e);
+      return failed("Problem executing ES query", e);
     }
   }
 
   @Override
   public Plugin getPlugin(String name) throws ServiceException {
-    try {
-      final GetResponse getResponse = esClient.prepareGet("plugins", "plugins", name).execute().get();
-      return getResponse.isExists() ? ElasticsearchTransformer.transformGet(getResponse, Plugin.class) : null;
-    } catch (Exception e) {
-        logger.error("Problem executing ES query", e);
-        throw new ServiceException("Problem executing ES query", e);
+    return getPlugin(name, Resolution.FULL);
+  }
+
+  @Override
+  public Plugin getPlugin(String name, Resolution resolution) throws ServiceException {
+    return join(getPluginAsync(name, resolution));
+  }
+
+  @Override
+  public CompletionStage<Plugin> getPluginAsync(String name, Resolution resolution) {
+    return execute(esClient.prepareGet("plugins", "plugins", name), "Problem executing ES query", getResponse -> {
+      if (!getResponse.isExists()) {
+        return null;
+      }
+      final Plugin plugin = ElasticsearchTransformer.transformGet(getResponse, Plugin.class);
+      plugin.setStats(resolution.apply(plugin.getStats()));
+      return plugin;
+    });
+  }
+
+  @Override
+  public SecurityWarnings getSecurityWarnings(String name, String version) throws ServiceException {
+    return join(getSecurityWarningsAsync(name, version));
+  }
+
+  /**
+   * <p>Answered right away from the security warning index, unless it has to be built for a new generation first</p>
+   *
+   * <p>Building the index scrolls through Elasticsearch, so it happens on the common pool rather than on the calling
+   * thread.</p>
+   */
+  @Override
+  public CompletionStage<SecurityWarnings> getSecurityWarningsAsync(String name, String version) {
+    final LocalDateTime generation = prepareDatastoreService.getCurrentGeneration();
+    if (generation == null || generation.equals(securityWarningGeneration)) {
+      try {
+        return CompletableFuture.completedFuture(toSecurityWarnings(getSecurityWarningIndex(), name, version));
+      } catch (Exception e) {
+        return failed("Problem getting security warnings", e);
+      }
+    }
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return toSecurityWarnings(getSecurityWarningIndex(), name, version);
+      } catch (Exception e) {
+        logger.error("Problem getting security warnings", e);
+        throw new CompletionException(new ServiceException("Problem getting security warnings", e));
+      }
+    });
+  }
+
+  private static SecurityWarnings toSecurityWarnings(SecurityWarningIndex index, String name, String version) {
+    final List<SecurityWarning> warnings = index.getWarnings(name, version);
+    return new SecurityWarnings(name, version, warnings != null ? warnings : Collections.emptyList());
+  }
+
+  /**
+   * <p>Get the security warning index for the current generation, building it if the data has changed since</p>
+   */
+  private SecurityWarningIndex getSecurityWarningIndex() throws Exception {
+    final LocalDateTime generation = prepareDatastoreService.getCurrentGeneration();
+    if (generation == null) {
+      return SecurityWarningIndex.empty();
+    }
+    if (!generation.equals(securityWarningGeneration)) {
+      synchronized (this) {
+        if (!generation.equals(securityWarningGeneration)) {
+          final List<Plugin> plugins = getPluginsWithSecurityWarnings();
+          securityWarningIndex = SecurityWarningIndex.fromPlugins(plugins);
+          securityWarningGeneration = generation;
+          logger.info(String.format("Indexed security warnings of %d plugins for generation %s", plugins.size(), generation));
+        }
+      }
     }
+    return securityWarningIndex;
+  }
+
+  /**
+   * <p>Scroll through every plugin with security warnings, however many there are</p>
+   */
+  private List<Plugin> getPluginsWithSecurityWarnings() throws IOException {
+    final List<Plugin> plugins = new ArrayList<>();
+    SearchResponse response = esClient.prepareSearch("plugins")
+      .setQuery(QueryBuilders.nestedQuery("securityWarnings", QueryBuilders.matchAllQuery()))
+      .setFetchSource(new String[]{"name", "securityWarnings"}, null)
+      .setScroll(SCROLL_KEEP_ALIVE)
+      .addSort(SortBuilders.fieldSort("_doc"))
+      .setSize(1000)
+      .get();
+    final long total = response.getHits().getTotalHits();
+    long fetched = 0;
+    while (response.getHits().getHits().length > 0) {
+      fetched += response.getHits().getHits().length;
+      plugins.addAll(ElasticsearchTransformer.transformHits(response.getHits()));
+      response = esClient.prepareSearchScroll(response.getScrollId()).setScroll(SCROLL_KEEP_ALIVE).get();
+    }
+    esClient.prepareClearScroll().addScrollId(response.getScrollId()).get();
+    if (fetched < total) {
+      throw new IOException(String.format("Only fetched %d of %d plugins with security warnings", fetched, total));
+    }
+    return plugins;
   }
 
   @Override
@@ -192,73 +385,114 @@ public class ElasticsearchDatastoreService implements DatastoreService {
 
   @Override
   public Maintainers getMaintainers() throws ServiceException {
-    try {
-      final SearchRequestBuilder requestBuilder = esClient.prepareSearch("plugins")
-        .addAggregation(AggregationBuilders.nested("maintainers").path("maintainers")
-          .subAggregation(AggregationBuilders.terms("maintainers").field("maintainers.id").size(0))
-        )
-        .setSize(0);
-      final SearchResponse response = requestBuilder.execute().get();
-      final InternalNested nested = response.getAggregations().get("maintainers");
-      final StringTerms agg = nested.getAggregations().get("maintainers");
-      final List<String> maintainers = agg.getBuckets().stream()
-        .map(MultiBucketsAggregation.Bucket::getKeyAsString)
-        .collect(Collectors.toList());
-      maintainers.sort(Comparator.naturalOrder());
-      return new Maintainers(maintainers);
-    } catch (Exception e) {
-      logger.error("Problem getting maintainers", e);
-      throw new ServiceException("Problem getting maintainers", e);
-    }
+    return join(getMaintainersAsync());
+  }
+
+  @Override
+  public CompletionStage<Maintainers> getMaintainersAsync() {
+    return getFacetsAsync().thenApply(Facets::getMaintainers);
   }
 
   @Override
   public Labels getLabels() throws ServiceException {
-    try {
-      final SearchRequestBuilder requestBuilder = esClient.prepareSearch("plugins")
-        .addAggregation(AggregationBuilders.terms("labels").field("labels").size(0))
-        .setSize(0);
-      final SearchResponse response = requestBuilder.execute().get();
-      final StringTerms agg = response.getAggregations().get("labels");
-      final List<Label> labels = agg.getBuckets().stream()
-        .map(MultiBucketsAggregation.Bucket::getKeyAsString)
-        .map(key -> new Label(key, labelTitleMap.getOrDefault(key, null)))
-        .collect(Collectors.toList());
-      return new Labels(labels);
-    } catch (Exception e) {
-      logger.error("Problem getting labels", e);
-      throw new ServiceException("Problem getting labels", e);
-    }
+    return join(getLabelsAsync());
   }
 
-  private Map<String, String> buildLabelTitleMap() {
-    try {
-      final ClassLoader cl = getClass().getClassLoader();
-      final File file = new File(cl.getResource("labels.json").getFile());
-      final JSONArray labels = new JSONObject(FileUtils.readFileToString(file, StandardCharsets.UTF_8)).getJSONArray("labels");
-      return StreamSupport.stream(labels.spliterator(), false)
-        .map(obj -> (JSONObject)obj)
-        .collect(Collectors.toMap(label -> label.getString("id"), label -> label.getString("title")));
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
+  @Override
+  public CompletionStage<Labels> getLabelsAsync() {
+    return getFacetsAsync().thenApply(Facets::getLabels);
   }
 
   @Override
   public Versions getVersions() throws ServiceException {
+    return join(getVersionsAsync());
+  }
+
+  @Override
+  public CompletionStage<Versions> getVersionsAsync() {
+    return getFacetsAsync().thenApply(Facets::getVersions);
+  }
+
+  /**
+   * <p>Facets of the current generation, aggregated from the datastore only if they haven't been computed yet</p>
+   */
+  private CompletionStage<Facets> getFacetsAsync() {
+    final Facets facets = prepareDatastoreService.getFacets();
+    if (facets != null) {
+      return CompletableFuture.completedFuture(facets);
+    }
+    return execute(ElasticsearchFacets.prepareSearch(esClient, "plugins"), "Problem getting facets",
+      response -> ElasticsearchFacets.transform(response, null));
+  }
+
+  /**
+   * <p>Send the request without waiting for it and transform the response once it arrives</p>
+   *
+   * @param message Logged and used for the <code>ServiceException</code> if the request or transformation fails
+   */
+  private <Response extends ActionResponse, T> CompletableFuture<T> execute(
+    ActionRequestBuilder<?, Response, ?> requestBuilder, String message, ResponseTransformer<Response, T> transformer) {
+    final CompletableFuture<T> future = new CompletableFuture<>();
+    requestBuilder.execute(new ActionListener<Response>() {
+      @Override
+      public void onResponse(Response response) {
+        try {
+          future.complete(transformer.transform(response));
+        } catch (Exception e) {
+          onFailure(e);
+        }
+      }
+
+      @Override
+      public void onFailure(Throwable e) {
+        logger.error(message, e);
+        future.completeExceptionally(new ServiceException(message, e));
+      }
+    });
+    return future;
+  }
+
+  private <T> CompletableFuture<T> failed(String message, Exception e) {
+    logger.error(message, e);
+    final CompletableFuture<T> future = new CompletableFuture<>();
+    future.completeExceptionally(new ServiceException(message, e));
+    return future;
+  }
+
+  /**
+   * <p>Wait for <code>stage</code>, for the blocking methods of <code>DatastoreService</code></p>
+   */
+  private static <T> T join(CompletionStage<T> stage) throws ServiceException {
     try {
-      final SearchRequestBuilder requestBuilder = esClient.prepareSearch("plugins")
-        .addAggregation(AggregationBuilders.terms("versions").field("requiredCore").size(0))
-        .setSize(0);
-      final SearchResponse response = requestBuilder.execute().get();
-      final StringTerms agg = response.getAggregations().get("versions");
-      final List<String> versions = agg.getBuckets().stream()
-        .map(MultiBucketsAggregation.Bucket::getKeyAsString)
-        .collect(Collectors.toList());
-      return new Versions(versions);
-    } catch (Exception e) {
-      logger.error("Problem getting versions", e);
-      throw new ServiceException("Problem getting versions", e);
+      return stage.toCompletableFuture().join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof ServiceException) {
+        throw (ServiceException) e.getCause();
+      }
+      throw new ServiceException("Problem executing ES query", e.getCause());
+    }
+  }
+
+  @FunctionalInterface
+  private interface ResponseTransformer<Response, T> {
+
+    T transform(Response response) throws Exception;
+
+  }
+
+  /**
+   * <p>Search results of one generation of the data</p>
+   */
+  private static class SearchCache {
+
+    private final LocalDateTime generation;
+    private final Cache<List<Object>, CompletableFuture<Plugins>> results;
+
+    private SearchCache(LocalDateTime generation) {
+      this.generation = generation;
+      this.results = CacheBuilder.newBuilder().maximumSize(SEARCH_CACHE_SIZE).build();
     }
+
   }
+
 }
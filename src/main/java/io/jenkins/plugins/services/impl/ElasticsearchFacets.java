@@ -0,0 +1,84 @@
+package io.jenkins.plugins.services.impl;
+
+import io.jenkins.plugins.models.Label;
+import io.jenkins.plugins.models.Labels;
+import io.jenkins.plugins.models.Maintainers;
+import io.jenkins.plugins.models.Versions;
+import io.jenkins.plugins.services.Facets;
+import org.apache.commons.io.FileUtils;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.bucket.MultiBucketsAggregation;
+import org.elasticsearch.search.aggregations.bucket.nested.InternalNested;
+import org.elasticsearch.search.aggregations.bucket.terms.StringTerms;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>Computes <code>Facets</code> with a single search aggregating labels, maintainers and versions</p>
+ */
+final class ElasticsearchFacets {
+
+  private static final Map<String, String> LABEL_TITLES = buildLabelTitleMap();
+
+  private ElasticsearchFacets() {
+  }
+
+  static SearchRequestBuilder prepareSearch(Client client, String index) {
+    return client.prepareSearch(index)
+      .addAggregation(AggregationBuilders.terms("labels").field("labels").size(0))
+      .addAggregation(AggregationBuilders.nested("maintainers").path("maintainers")
+        .subAggregation(AggregationBuilders.terms("maintainers").field("maintainers.id").size(0))
+      )
+      .addAggregation(AggregationBuilders.terms("versions").field("requiredCore").size(0))
+      .setSize(0);
+  }
+
+  /**
+   * @param generation Generation the search ran against, null if unknown
+   */
+  static Facets transform(SearchResponse response, LocalDateTime generation) throws IOException {
+    final StringTerms labelsAgg = response.getAggregations().get("labels");
+    final List<Label> labels = labelsAgg.getBuckets().stream()
+      .map(MultiBucketsAggregation.Bucket::getKeyAsString)
+      .map(key -> new Label(key, LABEL_TITLES.getOrDefault(key, null)))
+      .collect(Collectors.toList());
+    final InternalNested nested = response.getAggregations().get("maintainers");
+    final StringTerms maintainersAgg = nested.getAggregations().get("maintainers");
+    final List<String> maintainers = maintainersAgg.getBuckets().stream()
+      .map(MultiBucketsAggregation.Bucket::getKeyAsString)
+      .collect(Collectors.toList());
+    maintainers.sort(Comparator.naturalOrder());
+    final StringTerms versionsAgg = response.getAggregations().get("versions");
+    final List<String> versions = versionsAgg.getBuckets().stream()
+      .map(MultiBucketsAggregation.Bucket::getKeyAsString)
+      .collect(Collectors.toList());
+    return new Facets(generation, new Labels(labels), new Maintainers(maintainers), new Versions(versions));
+  }
+
+  private static Map<String, String> buildLabelTitleMap() {
+    try {
+      final ClassLoader cl = ElasticsearchFacets.class.getClassLoader();
+      final File file = new File(cl.getResource("labels.json").getFile());
+      final JSONArray labels = new JSONObject(FileUtils.readFileToString(file, StandardCharsets.UTF_8)).getJSONArray("labels");
+      return StreamSupport.stream(labels.spliterator(), false)
+        .map(obj -> (JSONObject)obj)
+        .collect(Collectors.toMap(label -> label.getString("id"), label -> label.getString("title")));
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+}
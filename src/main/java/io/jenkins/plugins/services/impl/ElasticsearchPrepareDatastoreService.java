@@ -1,40 +1,83 @@
 package io.jenkins.plugins.services.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.hash.Hashing;
 import io.jenkins.plugins.commons.JsonObjectMapper;
 import io.jenkins.plugins.models.GeneratedPluginData;
+import io.jenkins.plugins.models.Plugin;
 import io.jenkins.plugins.services.ConfigurationService;
+import io.jenkins.plugins.services.Facets;
 import io.jenkins.plugins.services.PrepareDatastoreService;
+import io.jenkins.plugins.utils.ConfigUtils;
 import io.jenkins.plugins.utils.VersionUtils;
 import org.apache.commons.io.FileUtils;
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.bulk.BackoffPolicy;
 import org.elasticsearch.action.bulk.BulkItemResponse;
-import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.Client;
+import org.elasticsearch.cluster.metadata.MappingMetaData;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.sort.SortBuilders;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class ElasticsearchPrepareDatastoreService implements PrepareDatastoreService {
 
   private final Logger logger = LoggerFactory.getLogger(ElasticsearchPrepareDatastoreService.class);
 
-  private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy.MM.dd_HH.mm.ss");
+  private static final String TIMESTAMP_PATTERN = "yyyy.MM.dd_HH.mm.ss";
+  private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern(TIMESTAMP_PATTERN);
   private static final String ALIAS = "plugins";
   private static final String INDEX_PREFIX = "plugins_";
   private static final String TYPE = "plugins";
+  private static final long BULK_TIMEOUT_MINUTES = 30;
+  private static final TimeValue SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+  private static final String CONTENT_HASH = "contentHash";
+  private static final String CREATED_AT = "createdAt";
+  private static final String MAPPING_VERSION = "mappingVersion";
+  private static final String ELASTICSEARCH_VERSION = "elasticsearchVersion";
 
   private ConfigurationService configurationService;
   private ScheduledExecutorService scheduledExecutorService;
   private Client client;
+  private volatile LocalDateTime generation;
+  private volatile Facets facets;
 
   @Inject
   public ElasticsearchPrepareDatastoreService(ConfigurationService configurationService,
@@ -46,17 +89,42 @@ public class ElasticsearchPrepareDatastoreService implements PrepareDatastoreSer
   }
 
   @Override
-  public void populateDataStore() {
+  public synchronized void populateDataStore() {
     try {
       final GeneratedPluginData data = configurationService.getIndexData();
       if (shouldIndex(data)) {
-        doPopulateIndex(data);
+        updateIndex(data);
       }
     } catch (Exception e) {
       logger.error("Problem populating index", e);
+      configurationService.invalidateIndexData();
+    } finally {
+      refreshGeneration();
     }
   }
 
+  @Override
+  public synchronized boolean populateDataStoreFromSnapshot() {
+    try {
+      final GeneratedPluginData data = configurationService.getSnapshotData();
+      if (data == null) {
+        return false;
+      }
+      if (shouldIndex(data)) {
+        updateIndex(data);
+      }
+    } catch (Exception e) {
+      logger.error("Problem populating index from snapshot", e);
+      // Otherwise the data file looks unchanged to populateDataStore and the index is never populated
+      configurationService.invalidateIndexData();
+      return false;
+    } finally {
+      refreshGeneration();
+    }
+    scheduledExecutorService.execute(this::populateDataStore);
+    return true;
+  }
+
   @Override
   public void schedulePopulateDataStore() {
     final int interval = Integer.valueOf(System.getenv().getOrDefault("POPULATE_DATASTORE_INTERVAL", "1"));
@@ -66,7 +134,9 @@ public class ElasticsearchPrepareDatastoreService implements PrepareDatastoreSer
   private boolean shouldIndex(GeneratedPluginData data) {
     if (data != null) {
       final LocalDateTime createdAt = getCurrentCreatedAt();
-      if (createdAt != null) {
+      if (createdAt != null && !isCurrentIndexCompatible()) {
+        logger.info("Current index was built for a different mapping or Elasticsearch version");
+      } else if (createdAt != null) {
         final LocalDateTime generatedCreatedAt = LocalDateTime.parse(TIMESTAMP_FORMATTER.format(data.getCreatedAt()), TIMESTAMP_FORMATTER);
         logger.info("Current timestamp - " + createdAt);
         logger.info("Data timestamp    - " + generatedCreatedAt);
@@ -94,49 +164,105 @@ public class ElasticsearchPrepareDatastoreService implements PrepareDatastoreSer
     }
   }
 
+  /**
+   * <p>Build a new index from the current one if it was built by a compatible application, otherwise from scratch</p>
+   */
+  private void updateIndex(GeneratedPluginData data) {
+    if (Boolean.parseBoolean(ConfigUtils.getString("INDEX_DELTA", "index.delta", "true")) && canUpdateCurrentIndex()) {
+      doUpdateIndex(data);
+    } else {
+      doPopulateIndex(data);
+    }
+  }
+
+  /**
+   * <p>Build a new index that reuses the unchanged documents of the current index and swap it in</p>
+   *
+   * <p>Every document carries the hash of its content in <code>contentHash</code>. Documents of the current index
+   * whose hash matches the data are copied as they are, only plugins that changed or are new are indexed from the
+   * data, and plugins that are no longer in the data are left behind. The current index is never written to, so searches
+   * and gets keep seeing it unchanged until the alias moves. If building the new index fails it's built from scratch
+   * instead.</p>
+   */
+  private void doUpdateIndex(GeneratedPluginData data) {
+    final String currentIndex = getCurrentIndex();
+    try {
+      buildIndex(data, index -> {
+        final Map<String, String> contentHashes = new HashMap<>();
+        data.getPlugins().forEach(plugin -> contentHashes.put(plugin.getName(), toDocument(plugin).get(CONTENT_HASH).asText()));
+        final Set<String> copied = new HashSet<>();
+        try (final Stream<SearchHit> hits = scroll(currentIndex)) {
+          bulk(hits
+            .filter(hit -> Objects.equals(hit.getSource().get(CONTENT_HASH), contentHashes.get(hit.getId())))
+            .peek(hit -> copied.add(hit.getId()))
+            .map(hit -> client.prepareIndex(index, TYPE, hit.getId()).setSource(hit.getSourceRef()).request()));
+        }
+        final int changed = bulk(data.getPlugins().stream()
+          .filter(plugin -> !copied.contains(plugin.getName()))
+          .map(plugin -> toIndexRequest(index, toDocument(plugin))));
+        logger.info(String.format("Copied %d unchanged plugins from index '%s', indexed %d changed or new plugins",
+          copied.size(), currentIndex, changed));
+      });
+    } catch (Exception e) {
+      logger.error(String.format("Problem building index from '%s', building a new index from scratch instead", currentIndex), e);
+      doPopulateIndex(data);
+    }
+  }
+
   private void doPopulateIndex(GeneratedPluginData data) {
+    buildIndex(data, index -> bulk(data.getPlugins().stream().map(plugin -> toIndexRequest(index, toDocument(plugin)))));
+  }
+
+  /**
+   * <p>Create a new index, load it with <code>loader</code>, prepare it for serving and move the alias to it</p>
+   *
+   * <p>The index only becomes visible once the alias moves, together with its facets and the generation of the
+   * data.</p>
+   */
+  private void buildIndex(GeneratedPluginData data, IndexLoader loader) {
     final ClassLoader cl = getClass().getClassLoader();
-    final String index = String.format("%s%s", INDEX_PREFIX, TIMESTAMP_FORMATTER.format(data.getCreatedAt()));
+    // Suffixed with the build time so rebuilding the same data, e.g. for a new mapping, never reuses the current index
+    final String index = String.format("%s%s_%d", INDEX_PREFIX, TIMESTAMP_FORMATTER.format(data.getCreatedAt()),
+      System.currentTimeMillis());
     try {
       final File mappingFile = new File(cl.getResource("elasticsearch/mappings/plugins.json").getFile());
       final String mappingContent = FileUtils.readFileToString(mappingFile, StandardCharsets.UTF_8);
+      deleteUnusedIndices();
+      // Bulk load without refreshes or replicas, the serving settings are applied before the alias is moved
       client.admin().indices().prepareCreate(index)
-        .addMapping(TYPE, mappingContent)
+        .setSettings(Settings.settingsBuilder()
+          .put("index.refresh_interval", "-1")
+          .put("index.number_of_replicas", 0))
+        .addMapping(TYPE, prepareMapping(mappingContent, data.getCreatedAt()))
         .get();
       logger.info(String.format("Index '%s' created", index));
-      final BulkRequestBuilder bulkRequestBuilder = client.prepareBulk();
-      data.getPlugins().forEach(plugin -> {
-        try {
-          final IndexRequest indexRequest = client.prepareIndex(index, TYPE, plugin.getName())
-            .setSource(JsonObjectMapper.getObjectMapper().writeValueAsString(plugin)).request();
-          bulkRequestBuilder.add(indexRequest);
-        } catch (Exception e) {
-          throw new RuntimeException(e);
-        }
-      });
-      final BulkResponse response = bulkRequestBuilder.get();
-      if (response.hasFailures()) {
-        for (BulkItemResponse item : response.getItems()) {
-          logger.warn(String.format("Problem indexing: %s", item.getFailureMessage()));
-        }
-        throw new ElasticsearchException("Problem bulk indexing");
-      }
-      logger.info(String.format("Indexed %d plugins", data.getPlugins().size()));
-      if (client.admin().indices().prepareAliasesExist(ALIAS).get().exists()) {
-        final String oldIndex = client.admin().indices().prepareGetAliases(ALIAS).get().getAliases().iterator().next().key;
+      final long start = System.nanoTime();
+      loader.load(index);
+      final long elapsed = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      logger.info(String.format("Indexed %d plugins in %d ms (%.0f docs/sec)", data.getPlugins().size(), elapsed,
+        data.getPlugins().size() * 1000.0 / elapsed));
+      prepareForServing(index);
+      warmUp(index);
+      final Facets newFacets = computeFacets(index, data.getCreatedAt());
+      final String oldIndex = getCurrentIndex();
+      if (oldIndex != null) {
         // Atomic swap of alias
         client.admin().indices().prepareAliases()
           .removeAlias(oldIndex, ALIAS)
           .addAlias(index, ALIAS)
           .get();
+        facets = newFacets;
         logger.info(String.format("Updated alias '%s' from '%s' to '%s'", ALIAS, oldIndex, index));
+        refreshGeneration();
         client.admin().indices().prepareDelete(oldIndex).get();
         logger.info(String.format("Deleted old index '%s'", oldIndex));
       } else {
         client.admin().indices().prepareAliases()
           .addAlias(index, ALIAS)
           .get();
+        facets = newFacets;
         logger.info(String.format("Alias (%s) plugins points to index %s", ALIAS, index));
+        refreshGeneration();
       }
       client.admin().indices().prepareRefresh(ALIAS).execute().get();
     } catch (Exception e) {
@@ -145,11 +271,169 @@ public class ElasticsearchPrepareDatastoreService implements PrepareDatastoreSer
     }
   }
 
+  /**
+   * <p>Refresh and force merge the freshly loaded index down to one segment, then restore the refresh interval and
+   * replicas given by <code>INDEX_REFRESH_INTERVAL</code> and <code>INDEX_NUMBER_OF_REPLICAS</code></p>
+   */
+  private void prepareForServing(String index) {
+    final long start = System.nanoTime();
+    client.admin().indices().prepareRefresh(index).get();
+    client.admin().indices().prepareForceMerge(index).setMaxNumSegments(1).get();
+    client.admin().indices().prepareUpdateSettings(index)
+      .setSettings(Settings.settingsBuilder()
+        .put("index.refresh_interval", getRefreshInterval())
+        .put("index.number_of_replicas", ConfigUtils.getInt("INDEX_NUMBER_OF_REPLICAS", "index.number.of.replicas", 1)))
+      .get();
+    logger.info(String.format("Index '%s' merged and prepared for serving in %d ms", index,
+      TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+  }
+
+  private static String getRefreshInterval() {
+    return ConfigUtils.getString("INDEX_REFRESH_INTERVAL", "index.refresh.interval", "1s");
+  }
+
+  /**
+   * <p>Run representative searches against <code>index</code> so field data for sorts and aggregations is loaded
+   * before users query it</p>
+   *
+   * <p>The searches are a JSON array of search request bodies read from the file given by
+   * <code>INDEX_WARMUP_QUERIES</code>, defaulting to <code>elasticsearch/warmup.json</code> on the classpath. A failing
+   * search is logged and doesn't stop indexing.</p>
+   */
+  private void warmUp(String index) {
+    final long start = System.nanoTime();
+    final JsonNode queries;
+    try {
+      final String file = ConfigUtils.getString("INDEX_WARMUP_QUERIES", "index.warmup.queries", null);
+      try (final InputStream inputStream = file != null ? new FileInputStream(file)
+        : getClass().getClassLoader().getResourceAsStream("elasticsearch/warmup.json")) {
+        queries = JsonObjectMapper.getObjectMapper().readTree(inputStream);
+      }
+    } catch (Exception e) {
+      logger.warn("Problem reading warm-up queries", e);
+      return;
+    }
+    int count = 0;
+    for (JsonNode query : queries) {
+      try {
+        client.prepareSearch(index).setTypes(TYPE).setSource(query.toString()).get();
+        count++;
+      } catch (Exception e) {
+        logger.warn(String.format("Problem running warm-up query %s", query), e);
+      }
+    }
+    logger.info(String.format("Warmed up index '%s' with %d queries in %d ms", index, count,
+      TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+  }
+
+  /**
+   * <p>Execute index and delete requests with a <code>BulkProcessor</code></p>
+   *
+   * <p>Requests are flushed every <code>INDEX_BULK_ACTIONS</code> documents or <code>INDEX_BULK_SIZE_MB</code>
+   * megabytes, whichever comes first, with up to <code>INDEX_BULK_CONCURRENT_REQUESTS</code> in flight. Once that many
+   * are in flight adding a request blocks, so only a few requests are ever held in memory. Requests rejected because
+   * Elasticsearch is overloaded are retried <code>INDEX_BULK_RETRIES</code> times with exponential backoff starting
+   * at <code>INDEX_BULK_BACKOFF_MS</code>.</p>
+   */
+  private int bulk(Stream<? extends ActionRequest<?>> requests) throws Exception {
+    final AtomicInteger failures = new AtomicInteger(0);
+    final BulkProcessor.Listener listener = new BulkProcessor.Listener() {
+      @Override
+      public void beforeBulk(long executionId, BulkRequest request) {
+      }
+
+      @Override
+      public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+        if (response.hasFailures()) {
+          for (BulkItemResponse item : response.getItems()) {
+            if (item.isFailed()) {
+              failures.incrementAndGet();
+              logger.warn(String.format("Problem indexing '%s': %s", item.getId(), item.getFailureMessage()));
+            }
+          }
+        }
+      }
+
+      @Override
+      public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+        failures.addAndGet(request.numberOfActions());
+        logger.warn(String.format("Problem executing %d bulk requests", request.numberOfActions()), failure);
+      }
+    };
+    final BulkProcessor bulkProcessor = BulkProcessor.builder(client, listener)
+      .setBulkActions(ConfigUtils.getInt("INDEX_BULK_ACTIONS", "index.bulk.actions", 500))
+      .setBulkSize(new ByteSizeValue(ConfigUtils.getInt("INDEX_BULK_SIZE_MB", "index.bulk.size.mb", 5), ByteSizeUnit.MB))
+      .setConcurrentRequests(ConfigUtils.getInt("INDEX_BULK_CONCURRENT_REQUESTS", "index.bulk.concurrent.requests", 2))
+      .setBackoffPolicy(BackoffPolicy.exponentialBackoff(
+        TimeValue.timeValueMillis(ConfigUtils.getInt("INDEX_BULK_BACKOFF_MS", "index.bulk.backoff.ms", 100)),
+        ConfigUtils.getInt("INDEX_BULK_RETRIES", "index.bulk.retries", 3)))
+      .build();
+    int count = 0;
+    try {
+      final Iterator<? extends ActionRequest<?>> iterator = requests.iterator();
+      while (iterator.hasNext()) {
+        bulkProcessor.add(iterator.next());
+        count++;
+      }
+    } finally {
+      if (!bulkProcessor.awaitClose(BULK_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+        throw new ElasticsearchException(String.format("Bulk indexing didn't finish within %d minutes", BULK_TIMEOUT_MINUTES));
+      }
+    }
+    if (failures.get() > 0) {
+      throw new ElasticsearchException(String.format("Problem bulk indexing - %d of %d requests failed", failures.get(), count));
+    }
+    return count;
+  }
+
+  /**
+   * <p>Serialize the plugin and add the hash of its content as <code>contentHash</code></p>
+   */
+  private ObjectNode toDocument(Plugin plugin) {
+    try {
+      final ObjectMapper mapper = JsonObjectMapper.getObjectMapper();
+      final ObjectNode document = mapper.valueToTree(plugin);
+      document.put(CONTENT_HASH, Hashing.sha256().hashBytes(mapper.writeValueAsBytes(document)).toString());
+      return document;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private IndexRequest toIndexRequest(String index, ObjectNode document) {
+    try {
+      return client.prepareIndex(index, TYPE, document.get("name").asText())
+        .setSource(JsonObjectMapper.getObjectMapper().writeValueAsBytes(document))
+        .request();
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * <p>Every document of <code>index</code> with its source, fetched page by page as the stream is consumed</p>
+   *
+   * <p>Closing the stream clears the scroll.</p>
+   */
+  private Stream<SearchHit> scroll(String index) {
+    final ScrollIterator iterator = new ScrollIterator(client.prepareSearch(index)
+      .setTypes(TYPE)
+      .setScroll(SCROLL_KEEP_ALIVE)
+      .addSort(SortBuilders.fieldSort("_doc"))
+      .setSize(1000)
+      .get());
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+      .onClose(iterator::close);
+  }
+
   @Override
   public LocalDateTime getCurrentCreatedAt() {
-    if (client.admin().indices().prepareAliasesExist(ALIAS).get().exists()) {
-      final String index = client.admin().indices().prepareGetAliases(ALIAS).get().getAliases().iterator().next().key;
-      final String timestamp = index.substring(INDEX_PREFIX.length());
+    final String index = getCurrentIndex();
+    if (index != null) {
+      // The createdAt in _meta takes precedence, the one in the name is a fallback for indices without it
+      final Object createdAt = getCurrentMappingMeta().get(CREATED_AT);
+      final String timestamp = createdAt != null ? createdAt.toString()
+        : index.substring(INDEX_PREFIX.length(), Math.min(index.length(), INDEX_PREFIX.length() + TIMESTAMP_PATTERN.length()));
       try {
         return LocalDateTime.parse(timestamp, TIMESTAMP_FORMATTER);
       } catch (Exception e) {
@@ -161,4 +445,178 @@ public class ElasticsearchPrepareDatastoreService implements PrepareDatastoreSer
       return null;
     }
   }
+
+  @Override
+  public LocalDateTime getCurrentGeneration() {
+    return generation;
+  }
+
+  @Override
+  public Facets getFacets() {
+    final Facets current = facets;
+    return current != null && current.getGeneration().equals(generation) ? current : null;
+  }
+
+  /**
+   * <p>Read the generation of the current index and compute its facets unless they were computed while indexing,
+   * e.g. when an index kept across restarts is served again</p>
+   */
+  private void refreshGeneration() {
+    try {
+      generation = getCurrentCreatedAt();
+      if (generation != null && getFacets() == null) {
+        facets = computeFacets(ALIAS, generation);
+      }
+    } catch (Exception e) {
+      logger.warn("Problem determining current generation", e);
+    }
+  }
+
+  /**
+   * <p>Aggregate the labels, maintainers and versions of <code>index</code></p>
+   *
+   * <p>A failure doesn't stop indexing, the facets are then aggregated on each request until the next attempt.</p>
+   *
+   * @param createdAt Time the data in <code>index</code> was created, the generation of the facets
+   * @return the facets, null if they couldn't be computed
+   */
+  private Facets computeFacets(String index, LocalDateTime createdAt) {
+    try {
+      final long start = System.nanoTime();
+      final Facets computed = ElasticsearchFacets.transform(ElasticsearchFacets.prepareSearch(client, index).get(),
+        LocalDateTime.parse(TIMESTAMP_FORMATTER.format(createdAt), TIMESTAMP_FORMATTER));
+      logger.info(String.format("Computed %d labels, %d maintainers and %d versions of index '%s' in %d ms",
+        computed.getLabels().getLimit(), computed.getMaintainers().getLimit(), computed.getVersions().getLimit(), index,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+      return computed;
+    } catch (Exception e) {
+      logger.warn(String.format("Problem computing facets of index '%s'", index), e);
+      return null;
+    }
+  }
+
+  private String getCurrentIndex() {
+    if (client.admin().indices().prepareAliasesExist(ALIAS).get().exists()) {
+      return client.admin().indices().prepareGetAliases(ALIAS).get().getAliases().iterator().next().key;
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * <p>Add <code>contentHash</code> to the mapping and record the data's <code>createdAt</code> together with the
+   * mapping and Elasticsearch version in its <code>_meta</code>, so an index kept across restarts is only reused by a
+   * compatible application</p>
+   */
+  private String prepareMapping(String mappingContent, LocalDateTime createdAt) throws IOException {
+    final ObjectMapper mapper = JsonObjectMapper.getObjectMapper();
+    final ObjectNode mapping = (ObjectNode) mapper.readTree(mappingContent);
+    final ObjectNode typeMapping = (ObjectNode) mapping.get(TYPE);
+    ((ObjectNode) typeMapping.get("properties")).putObject(CONTENT_HASH)
+      .put("type", "string")
+      .put("index", "no");
+    typeMapping.set("_meta", mapper.valueToTree(createMappingMeta(createdAt)));
+    return mapper.writeValueAsString(mapping);
+  }
+
+  private Map<String, String> createMappingMeta(LocalDateTime createdAt) {
+    final Map<String, String> meta = new HashMap<>();
+    meta.put(CREATED_AT, TIMESTAMP_FORMATTER.format(createdAt));
+    meta.put(MAPPING_VERSION, VersionUtils.getMappingVersion());
+    meta.put(ELASTICSEARCH_VERSION, VersionUtils.getElasticsearchVersion());
+    return meta;
+  }
+
+  /**
+   * @return the <code>_meta</code> of the current index's mapping, empty if there is none
+   */
+  private Map<?, ?> getCurrentMappingMeta() {
+    final Object meta = getCurrentMapping().get("_meta");
+    return meta instanceof Map ? (Map<?, ?>) meta : Collections.emptyMap();
+  }
+
+  private Map<String, Object> getCurrentMapping() {
+    try {
+      final String index = getCurrentIndex();
+      final MappingMetaData mapping = index != null ? client.admin().indices().prepareGetMappings(index).setTypes(TYPE).get()
+        .getMappings().get(index).get(TYPE) : null;
+      return mapping != null ? mapping.sourceAsMap() : Collections.emptyMap();
+    } catch (Exception e) {
+      logger.warn("Problem reading mapping of current index", e);
+      return Collections.emptyMap();
+    }
+  }
+
+  private boolean isCurrentIndexCompatible() {
+    final Map<?, ?> meta = getCurrentMappingMeta();
+    return VersionUtils.getMappingVersion().equals(meta.get(MAPPING_VERSION))
+      && VersionUtils.getElasticsearchVersion().equals(meta.get(ELASTICSEARCH_VERSION));
+  }
+
+  /**
+   * <p>Only indices that are compatible and record the hash of each document can be updated in place</p>
+   */
+  private boolean canUpdateCurrentIndex() {
+    final Object properties = getCurrentMapping().get("properties");
+    return isCurrentIndexCompatible() && properties instanceof Map && ((Map<?, ?>) properties).containsKey(CONTENT_HASH);
+  }
+
+  /**
+   * <p>Delete indices left behind by an interrupted run so they don't pile up in a persistent data directory</p>
+   *
+   * <p>The index behind the alias is kept, it's only deleted once the alias has moved to its replacement.</p>
+   */
+  private void deleteUnusedIndices() {
+    final String currentIndex = getCurrentIndex();
+    for (String existing : client.admin().indices().prepareGetIndex().setIndices(INDEX_PREFIX + "*").get().getIndices()) {
+      if (!existing.equals(currentIndex)) {
+        client.admin().indices().prepareDelete(existing).get();
+        logger.info(String.format("Deleted unused index '%s'", existing));
+      }
+    }
+  }
+
+  /**
+   * <p>Loads the documents of a new index</p>
+   */
+  @FunctionalInterface
+  private interface IndexLoader {
+
+    void load(String index) throws Exception;
+
+  }
+
+  private class ScrollIterator implements Iterator<SearchHit> {
+
+    private SearchResponse response;
+    private int position = 0;
+
+    private ScrollIterator(SearchResponse response) {
+      this.response = response;
+    }
+
+    @Override
+    public boolean hasNext() {
+      final SearchHit[] hits = response.getHits().getHits();
+      if (position == hits.length && hits.length > 0) {
+        response = client.prepareSearchScroll(response.getScrollId()).setScroll(SCROLL_KEEP_ALIVE).get();
+        position = 0;
+      }
+      return position < response.getHits().getHits().length;
+    }
+
+    @Override
+    public SearchHit next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return response.getHits().getHits()[position++];
+    }
+
+    private void close() {
+      client.prepareClearScroll().addScrollId(response.getScrollId()).get();
+    }
+
+  }
+
 }
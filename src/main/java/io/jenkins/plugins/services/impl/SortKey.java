@@ -0,0 +1,145 @@
+package io.jenkins.plugins.services.impl;
+
+import io.jenkins.plugins.services.SortBy;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.query.RangeQueryBuilder;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.sort.FieldSortBuilder;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>One field a search is sorted by</p>
+ *
+ * <p>Every sort ends with <code>name.raw</code> so the order is total and a <code>Cursor</code> can continue after
+ * any plugin. Plugins missing a field are sorted last.</p>
+ *
+ * <p>Elasticsearch 2.x has no <code>search_after</code>, so <code>after</code> builds the equivalent filter from the
+ * sort values of the last plugin.</p>
+ */
+final class SortKey {
+
+  private static final SortKey NAME = new SortKey("name.raw", null, SortOrder.ASC, false);
+
+  private final String field;
+  private final String nestedPath;
+  private final SortOrder order;
+  private final boolean date;
+
+  private SortKey(String field, String nestedPath, SortOrder order, boolean date) {
+    this.field = field;
+    this.nestedPath = nestedPath;
+    this.order = order;
+    this.date = date;
+  }
+
+  /**
+   * @return the fields to sort by, ending with <code>name.raw</code>. For relevance that is only <code>name.raw</code>,
+   * which breaks ties of the score.
+   */
+  static List<SortKey> forSortBy(SortBy sortBy) {
+    final List<SortKey> keys = new ArrayList<>();
+    switch (sortBy != null ? sortBy : SortBy.RELEVANCE) {
+      case FIRST_RELEASE:
+        keys.add(new SortKey("firstRelease", null, SortOrder.DESC, true));
+        keys.add(new SortKey("stats.currentInstalls", "stats", SortOrder.DESC, false));
+        break;
+      case INSTALLED:
+        keys.add(new SortKey("stats.currentInstalls", "stats", SortOrder.DESC, false));
+        break;
+      case TITLE:
+        keys.add(new SortKey("title.raw", null, SortOrder.ASC, false));
+        break;
+      case TREND:
+        keys.add(new SortKey("stats.trend", "stats", SortOrder.DESC, false));
+        break;
+      case UPDATED:
+        keys.add(new SortKey("releaseTimestamp", null, SortOrder.DESC, true));
+        break;
+      default:
+        break;
+    }
+    keys.add(NAME);
+    return Collections.unmodifiableList(keys);
+  }
+
+  FieldSortBuilder toSortBuilder() {
+    final FieldSortBuilder builder = SortBuilders.fieldSort(field).order(order).missing("_last");
+    return nestedPath != null ? builder.setNestedPath(nestedPath) : builder;
+  }
+
+  /**
+   * <p>Sort values of <code>hit</code> for a <code>Cursor</code>, with null for missing fields</p>
+   */
+  static List<Object> sortValues(SearchHit hit) {
+    final List<Object> values = new ArrayList<>();
+    for (Object value : hit.getSortValues()) {
+      // Missing numbers and dates sort with the extreme value of their order
+      if (value == null || Long.valueOf(Long.MIN_VALUE).equals(value) || Long.valueOf(Long.MAX_VALUE).equals(value)) {
+        values.add(null);
+      } else if (value instanceof Number) {
+        values.add(value);
+      } else {
+        values.add(value.toString());
+      }
+    }
+    return values;
+  }
+
+  /**
+   * <p>Filter matching the plugins sorted after <code>values</code></p>
+   *
+   * <p>For sort fields k1..kn that is k1 after v1, or k1 = v1 and k2 after v2, and so on.</p>
+   *
+   * @throws IllegalArgumentException if there isn't a value for each key
+   */
+  static QueryBuilder after(List<SortKey> keys, List<Object> values) {
+    if (keys.size() != values.size()) {
+      throw new IllegalArgumentException(String.format("Expected %d cursor values but got %s", keys.size(), values));
+    }
+    final BoolQueryBuilder after = QueryBuilders.boolQuery().minimumNumberShouldMatch(1);
+    for (int i = 0; i < keys.size(); i++) {
+      final Object value = values.get(i);
+      if (value == null) {
+        // Nothing sorts after a missing field, only ties on it continue
+        continue;
+      }
+      final BoolQueryBuilder clause = QueryBuilders.boolQuery();
+      for (int j = 0; j < i; j++) {
+        clause.filter(keys.get(j).equalTo(values.get(j)));
+      }
+      clause.filter(keys.get(i).after(value));
+      after.should(clause);
+    }
+    return after;
+  }
+
+  private QueryBuilder equalTo(Object value) {
+    return value != null ? nested(range().gte(value).lte(value)) : missing();
+  }
+
+  private QueryBuilder after(Object value) {
+    final RangeQueryBuilder range = order == SortOrder.ASC ? range().gt(value) : range().lt(value);
+    return QueryBuilders.boolQuery().should(nested(range)).should(missing()).minimumNumberShouldMatch(1);
+  }
+
+  private RangeQueryBuilder range() {
+    final RangeQueryBuilder range = QueryBuilders.rangeQuery(field);
+    return date ? range.format("epoch_millis") : range;
+  }
+
+  private QueryBuilder missing() {
+    return QueryBuilders.boolQuery().mustNot(nested(QueryBuilders.existsQuery(field)));
+  }
+
+  private QueryBuilder nested(QueryBuilder query) {
+    return nestedPath != null ? QueryBuilders.nestedQuery(nestedPath, query) : query;
+  }
+
+}
@@ -0,0 +1,29 @@
+package io.jenkins.plugins.utils;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * <p>Resolves configuration values from an environment variable, falling back to a system property and then to a
+ * default value</p>
+ */
+public class ConfigUtils {
+
+  public static String getString(String env, String property, String defaultValue) {
+    final String envValue = StringUtils.trimToNull(System.getenv(env));
+    if (envValue != null) {
+      return envValue;
+    }
+    final String propertyValue = StringUtils.trimToNull(System.getProperty(property));
+    return propertyValue != null ? propertyValue : defaultValue;
+  }
+
+  public static int getInt(String env, String property, int defaultValue) {
+    final String value = getString(env, property, null);
+    try {
+      return value != null ? Integer.parseInt(value) : defaultValue;
+    } catch (NumberFormatException e) {
+      throw new RuntimeException(String.format("Configuration '%s' must be a number but was '%s'", env, value), e);
+    }
+  }
+
+}
@@ -0,0 +1,39 @@
+package io.jenkins.plugins.utils;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+
+/**
+ * <p>HTTP clients for fetching upstream sources while generating plugin data</p>
+ *
+ * <p>Timeouts are in seconds and configurable with <code>GENERATE_CONNECT_TIMEOUT</code> or
+ * <code>generate.connect.timeout</code> and <code>GENERATE_SOCKET_TIMEOUT</code> or
+ * <code>generate.socket.timeout</code>. The socket timeout bounds how long a download can stall, not how long it can
+ * take.</p>
+ */
+public class HttpClientUtils {
+
+  private static final int DEFAULT_CONNECT_TIMEOUT = 30;
+  private static final int DEFAULT_SOCKET_TIMEOUT = 60;
+
+  public static CloseableHttpClient createHttpClient() {
+    final int connectTimeout = getConnectTimeout() * 1000;
+    final int socketTimeout = getSocketTimeout() * 1000;
+    final RequestConfig requestConfig = RequestConfig.copy(RequestConfig.DEFAULT)
+      .setConnectionRequestTimeout(connectTimeout)
+      .setConnectTimeout(connectTimeout)
+      .setSocketTimeout(socketTimeout)
+      .build();
+    return HttpClients.custom().setDefaultRequestConfig(requestConfig).build();
+  }
+
+  public static int getConnectTimeout() {
+    return ConfigUtils.getInt("GENERATE_CONNECT_TIMEOUT", "generate.connect.timeout", DEFAULT_CONNECT_TIMEOUT);
+  }
+
+  public static int getSocketTimeout() {
+    return ConfigUtils.getInt("GENERATE_SOCKET_TIMEOUT", "generate.socket.timeout", DEFAULT_SOCKET_TIMEOUT);
+  }
+
+}
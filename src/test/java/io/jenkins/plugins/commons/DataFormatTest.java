@@ -0,0 +1,30 @@
+package io.jenkins.plugins.commons;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DataFormatTest {
+
+  @Test
+  public void testDetectContentType() {
+    Assert.assertEquals(DataFormat.SMILE, DataFormat.detect("application/x-jackson-smile; charset=binary", "plugins.json.gzip"));
+    Assert.assertEquals(DataFormat.JSON, DataFormat.detect("application/json", "plugins.smile.gzip"));
+  }
+
+  @Test
+  public void testDetectExtension() {
+    Assert.assertEquals(DataFormat.SMILE, DataFormat.detect(null, "plugins.smile.gzip"));
+    Assert.assertEquals(DataFormat.SMILE, DataFormat.detect("application/octet-stream", "https://example.com/data/plugins.SMILE.gz?token=1"));
+    Assert.assertEquals(DataFormat.SMILE, DataFormat.detect(null, "/var/data/plugins.smile"));
+    Assert.assertEquals(DataFormat.JSON, DataFormat.detect(null, "plugins.json.gzip"));
+  }
+
+  @Test
+  public void testDetectIgnoresExtensionElsewhere() {
+    Assert.assertEquals(DataFormat.JSON, DataFormat.detect(null, "https://example.com/plugins.smile.gzip/plugins.json.gzip"));
+    Assert.assertEquals(DataFormat.JSON, DataFormat.detect(null, "https://example.com/plugins.smiley.gzip"));
+    Assert.assertEquals(DataFormat.JSON, DataFormat.detect(null, "https://example.com/plugins.json.gzip?format=.smile"));
+    Assert.assertEquals(DataFormat.JSON, DataFormat.detect(null, null));
+  }
+
+}
@@ -0,0 +1,62 @@
+package io.jenkins.plugins.commons;
+
+import io.jenkins.plugins.models.Plugin;
+import io.jenkins.plugins.models.SecurityWarning;
+import org.json.JSONArray;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+public class SecurityWarningIndexTest {
+
+  private SecurityWarningIndex index;
+
+  @Before
+  public void setUp() {
+    index = SecurityWarningIndex.fromUpdateCenter(new JSONArray("[" +
+      "{\"id\":\"SECURITY-1\",\"message\":\"First\",\"name\":\"foo\",\"type\":\"plugin\",\"url\":\"https://jenkins.io/1\"," +
+      "\"versions\":[{\"lastVersion\":\"1.2\",\"pattern\":\"1[.][0-2](|[.-].*)\"}]}," +
+      "{\"id\":\"SECURITY-2\",\"message\":\"Second\",\"name\":\"foo\",\"type\":\"plugin\",\"url\":\"https://jenkins.io/2\"," +
+      "\"versions\":[{\"firstVersion\":\"2.0\",\"lastVersion\":\"2.1\",\"pattern\":\"2[.][0-1]\"},{\"lastVersion\":\"0.9\",\"pattern\":\"0[.].*\"}]}," +
+      "{\"id\":\"core-1\",\"message\":\"Core\",\"name\":\"core\",\"type\":\"core\",\"url\":\"https://jenkins.io/3\"," +
+      "\"versions\":[{\"lastVersion\":\"2.43\",\"pattern\":\".*\"}]}" +
+      "]"));
+  }
+
+  @Test
+  public void testGetWarnings() {
+    final List<SecurityWarning> warnings = index.getWarnings("foo", "1.1");
+    Assert.assertEquals(2, warnings.size());
+    Assert.assertEquals("SECURITY-1", warnings.get(0).getId());
+    Assert.assertTrue(warnings.get(0).isActive());
+    Assert.assertFalse(warnings.get(1).isActive());
+    Assert.assertEquals("2.0", warnings.get(1).getVersions().get(0).getFirstVersion());
+    Assert.assertNull(index.getWarnings("bar", "1.0"));
+    Assert.assertFalse("Core warnings are not plugin warnings", index.hasWarnings("core"));
+  }
+
+  @Test
+  public void testIsAffected() {
+    Assert.assertTrue(index.isAffected("foo", "1.2.1"));
+    Assert.assertTrue(index.isAffected("foo", "0.5"));
+    Assert.assertTrue(index.isAffected("foo", "2.1"));
+    Assert.assertFalse(index.isAffected("foo", "1.3"));
+    Assert.assertFalse(index.isAffected("foo", "2.10"));
+    Assert.assertFalse(index.isAffected("bar", "1.0"));
+  }
+
+  @Test
+  public void testFromPlugins() {
+    final Plugin plugin = new Plugin();
+    plugin.setName("foo");
+    plugin.setSecurityWarnings(index.getWarnings("foo", "1.3"));
+    final SecurityWarningIndex runtimeIndex = SecurityWarningIndex.fromPlugins(Collections.singletonList(plugin));
+    Assert.assertTrue(runtimeIndex.isAffected("foo", "1.0"));
+    Assert.assertFalse(runtimeIndex.isAffected("foo", "1.3"));
+    Assert.assertEquals(index.getFingerprintContent("foo"), runtimeIndex.getFingerprintContent("foo"));
+  }
+
+}
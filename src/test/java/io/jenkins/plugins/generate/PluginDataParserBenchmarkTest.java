@@ -0,0 +1,30 @@
+package io.jenkins.plugins.generate;
+
+import io.jenkins.plugins.models.Plugin;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Runs once each parser <code>PluginDataParserBenchmark</code> measures, without measuring it</p>
+ */
+public class PluginDataParserBenchmarkTest {
+
+  @Test
+  public void testEachParser() throws Exception {
+    final PluginDataParserFixtures fixtures = PluginDataParserFixtures.load();
+    final List<JSONObject> plugins = fixtures.getPlugins();
+    Assert.assertFalse("No plugins in the fixtures", plugins.isEmpty());
+    for (Map.Entry<String, PluginDataParser> entry : fixtures.getParsers().entrySet()) {
+      final List<Plugin> seeds = fixtures.seed(entry.getValue());
+      Assert.assertEquals(entry.getKey(), plugins.size(), seeds.size());
+      for (int i = 0; i < plugins.size(); i++) {
+        entry.getValue().parse(plugins.get(i), seeds.get(i));
+      }
+    }
+  }
+
+}
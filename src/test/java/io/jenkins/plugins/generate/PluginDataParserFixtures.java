@@ -0,0 +1,116 @@
+package io.jenkins.plugins.generate;
+
+import io.jenkins.plugins.generate.parsers.*;
+import io.jenkins.plugins.models.Plugin;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * <p>Every <code>PluginDataParser</code> set up against recorded fixtures instead of the live update center</p>
+ *
+ * <p>Fixtures are read from <code>src/test/resources/fixtures</code> unless <code>benchmark.fixtures</code> points to
+ * a directory with the same layout, e.g. full copies of <code>update-center.json</code>,
+ * <code>release-history.json</code>, <code>plugin-documentation-urls.json</code> and a checkout of
+ * infra-statistics.</p>
+ */
+class PluginDataParserFixtures {
+
+  private final List<JSONObject> plugins;
+  private final Map<String, PluginDataParser> parsers;
+  private final List<PluginDataParser> ordered;
+
+  private PluginDataParserFixtures(List<JSONObject> plugins, Map<String, PluginDataParser> parsers) {
+    this.plugins = plugins;
+    this.parsers = parsers;
+    this.ordered = new PluginDataParserGraph(new ArrayList<>(parsers.values())).getParsers();
+  }
+
+  static PluginDataParserFixtures load() throws IOException {
+    final Path fixtures = getFixtures();
+    // UpdateCenter deletes its file when closed so work on a copy
+    final File updateCenterFile = File.createTempFile("update-center", ".json");
+    FileUtils.copyFile(fixtures.resolve("update-center.json").toFile(), updateCenterFile);
+    try (final UpdateCenter updateCenter = UpdateCenter.read(updateCenterFile)) {
+      final List<JSONObject> plugins = new ArrayList<>();
+      updateCenter.forEachPlugin(plugins::add);
+      return new PluginDataParserFixtures(plugins, createParsers(fixtures, updateCenter));
+    }
+  }
+
+  /**
+   * @return plugins of the fixture update center
+   */
+  List<JSONObject> getPlugins() {
+    return plugins;
+  }
+
+  /**
+   * @return every parser by the name the benchmark uses for it
+   */
+  Map<String, PluginDataParser> getParsers() {
+    return parsers;
+  }
+
+  /**
+   * <p>Run the parsers writing the fields <code>parser</code> reads, so it can be run on its own</p>
+   *
+   * @param parser One of <code>getParsers()</code>
+   * @return a plugin for each plugin of the fixtures holding the fields <code>parser</code> reads
+   */
+  List<Plugin> seed(PluginDataParser parser) {
+    final Set<String> reads = new HashSet<>(parser.reads());
+    final List<PluginDataParser> dependencies = new ArrayList<>();
+    for (int i = ordered.indexOf(parser) - 1; i >= 0; i--) {
+      final PluginDataParser dependency = ordered.get(i);
+      if (!Collections.disjoint(dependency.writes(), reads)) {
+        dependencies.add(0, dependency);
+        reads.addAll(dependency.reads());
+      }
+    }
+    final List<Plugin> result = new ArrayList<>();
+    for (JSONObject pluginJson : plugins) {
+      final Plugin plugin = new Plugin();
+      dependencies.forEach(dependency -> dependency.parse(pluginJson, plugin));
+      result.add(plugin);
+    }
+    return result;
+  }
+
+  private static Map<String, PluginDataParser> createParsers(Path fixtures, UpdateCenter updateCenter) throws IOException {
+    final Map<String, PluginDataParser> parsers = new LinkedHashMap<>();
+    parsers.put("categories", new CategoriesPluginDataParser());
+    parsers.put("dependencies", new DependenciesPluginDataParser(updateCenter.getPluginTitles()));
+    parsers.put("firstRelease", new FirstReleasePluginDataParser(FirstReleasePluginDataParser.parseGavToFirstReleaseMap(
+      readJson(fixtures.resolve("release-history.json")))));
+    parsers.put("labels", new LabelsPluginDataParser());
+    parsers.put("maintainers", new MaintainersPluginDataParser());
+    parsers.put("root", new RootPluginDataParser());
+    parsers.put("scm", new ScmPluginDataParser());
+    parsers.put("securityWarnings", new SecurityWarningsPluginDataParser(updateCenter.getWarnings()));
+    parsers.put("stats", new StatsPluginDataParser(StatisticsIndex.load(fixtures)));
+    parsers.put("wiki", new WikiPluginDataParser(WikiPluginDataParser.parsePluginToDocumentationUrlMap(
+      readJson(fixtures.resolve("plugin-documentation-urls.json")))));
+    return parsers;
+  }
+
+  private static JSONObject readJson(Path file) throws IOException {
+    return new JSONObject(FileUtils.readFileToString(file.toFile(), StandardCharsets.UTF_8));
+  }
+
+  private static Path getFixtures() {
+    final String fixtures = System.getProperty("benchmark.fixtures");
+    if (StringUtils.isNotBlank(fixtures)) {
+      return Paths.get(fixtures);
+    }
+    return new File(PluginDataParserFixtures.class.getClassLoader().getResource("fixtures").getFile()).toPath();
+  }
+
+}
@@ -0,0 +1,84 @@
+package io.jenkins.plugins.generate;
+
+import io.jenkins.plugins.generate.parsers.CategoriesPluginDataParser;
+import io.jenkins.plugins.generate.parsers.LabelsPluginDataParser;
+import io.jenkins.plugins.generate.parsers.RootPluginDataParser;
+import io.jenkins.plugins.models.Plugin;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+public class PluginDataParserGraphTest {
+
+  @Test
+  public void testOrdersByDependencies() {
+    final PluginDataParser categories = new CategoriesPluginDataParser();
+    final PluginDataParser labels = new LabelsPluginDataParser();
+    final PluginDataParser root = new RootPluginDataParser();
+    final PluginDataParserGraph graph = new PluginDataParserGraph(Arrays.asList(categories, root, labels));
+    Assert.assertEquals(Arrays.asList(root, labels, categories), graph.getParsers());
+  }
+
+  @Test
+  public void testParse() {
+    final PluginDataParserGraph graph = new PluginDataParserGraph(Arrays.asList(
+      new CategoriesPluginDataParser(), new LabelsPluginDataParser(), new RootPluginDataParser()));
+    final JSONObject pluginJson = new JSONObject()
+      .put("name", "git")
+      .put("labels", Arrays.asList("scm", "unknown"));
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (int i = 0; i < 100; i++) {
+        final Plugin plugin = new Plugin();
+        graph.parse(pluginJson, plugin, pool).join();
+        Assert.assertEquals("git", plugin.getName());
+        Assert.assertEquals(Collections.singleton("scm"), plugin.getCategories());
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCycle() {
+    new PluginDataParserGraph(Arrays.asList(
+      new TestParser(Collections.singleton("title"), Collections.singleton("excerpt")),
+      new TestParser(Collections.singleton("excerpt"), Collections.singleton("title"))
+    ));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownField() {
+    new PluginDataParserGraph(Collections.singletonList(new TestParser(Collections.emptySet(), Collections.singleton("foo"))));
+  }
+
+  private static class TestParser implements PluginDataParser {
+
+    private final Set<String> reads;
+    private final Set<String> writes;
+
+    private TestParser(Set<String> reads, Set<String> writes) {
+      this.reads = reads;
+      this.writes = writes;
+    }
+
+    @Override
+    public void parse(JSONObject pluginJson, Plugin plugin) {
+    }
+
+    @Override
+    public Set<String> reads() {
+      return reads;
+    }
+
+    @Override
+    public Set<String> writes() {
+      return writes;
+    }
+
+  }
+
+}
@@ -0,0 +1,51 @@
+package io.jenkins.plugins.models;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jenkins.plugins.commons.JsonObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class StatsTest {
+
+  private final ObjectMapper mapper = JsonObjectMapper.getObjectMapper();
+
+  @Test
+  public void testSerializeSameAsList() throws Exception {
+    final InstallationSeries installations = new InstallationSeries(new long[]{1320105600000L, 1322697600000L}, new int[]{90, 100});
+    final InstallationPercentageSeries percentages = new InstallationPercentageSeries(new long[]{1320105600000L}, new double[]{1.25});
+    Assert.assertEquals(mapper.writeValueAsString(Arrays.asList(new Installation(1320105600000L, 90), new Installation(1322697600000L, 100))),
+      mapper.writeValueAsString(installations));
+    Assert.assertEquals(mapper.writeValueAsString(Collections.singletonList(new InstallationPercentage(1320105600000L, 1.25))),
+      mapper.writeValueAsString(percentages));
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    final Stats stats = new Stats(
+      new InstallationSeries(new long[]{1320105600000L, 1322697600000L}, new int[]{90, 100}),
+      new InstallationPercentageSeries(new long[]{1320105600000L}, new double[]{1.25}),
+      Collections.singletonList(new InstallationVersion("1.0", 3)),
+      Collections.emptyList(),
+      100, 10
+    );
+    final String json = mapper.writeValueAsString(stats);
+    final Stats read = mapper.readValue(json, Stats.class);
+    Assert.assertEquals(2, read.getInstallations().size());
+    Assert.assertEquals(1322697600000L, read.getInstallations().getTimestamp(1));
+    Assert.assertEquals(100, read.getInstallations().getTotal(1));
+    Assert.assertEquals(1.25, read.getInstallationsPercentage().getPercentage(0), 0);
+    Assert.assertEquals(json, mapper.writeValueAsString(read));
+  }
+
+  @Test
+  public void testReadNullAndUnknownFields() throws Exception {
+    final Stats read = mapper.readValue("{\"installations\":[{\"timestamp\":1,\"total\":2,\"foo\":{\"bar\":1}}],\"installationsPercentage\":null}", Stats.class);
+    Assert.assertEquals(1, read.getInstallations().size());
+    Assert.assertEquals(2, read.getInstallations().getTotal(0));
+    Assert.assertNull(read.getInstallationsPercentage());
+  }
+
+}
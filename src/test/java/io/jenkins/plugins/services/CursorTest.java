@@ -0,0 +1,39 @@
+package io.jenkins.plugins.services;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class CursorTest {
+
+  @Test
+  public void testRoundTrip() {
+    final Cursor cursor = new Cursor(SortBy.FIRST_RELEASE, Arrays.asList(1467590400000L, null, "git"));
+    final Cursor parsed = Cursor.parse(cursor.value());
+    Assert.assertEquals(SortBy.FIRST_RELEASE, parsed.getSortBy());
+    Assert.assertEquals(Arrays.asList(1467590400000L, null, "git"), parsed.getValues());
+    Assert.assertEquals(cursor.value(), parsed.value());
+  }
+
+  @Test
+  public void testBlank() {
+    Assert.assertNull(Cursor.parse(null));
+    Assert.assertNull(Cursor.parse(" "));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalid() {
+    Cursor.parse("not a cursor");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOtherSort() {
+    new SearchOptions.Builder()
+      .withSortBy(SortBy.NAME)
+      .withCursor(new Cursor(SortBy.TITLE, Collections.singletonList("git")))
+      .build();
+  }
+
+}
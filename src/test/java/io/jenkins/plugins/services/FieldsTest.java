@@ -0,0 +1,75 @@
+package io.jenkins.plugins.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.jenkins.plugins.models.Plugin;
+import io.jenkins.plugins.models.Plugins;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class FieldsTest {
+
+  @Test
+  public void testAll() {
+    Assert.assertSame(Fields.ALL, Fields.parse(null, null));
+    Assert.assertSame(Fields.ALL, Fields.parse(Collections.singleton("full"), Collections.emptySet()));
+    Assert.assertNull(Fields.ALL.getIncludes());
+    Assert.assertNull(Fields.ALL.getExcludes());
+  }
+
+  @Test
+  public void testFields() {
+    final Fields fields = Fields.parse(Arrays.asList("title,excerpt", "version"), null);
+    Assert.assertArrayEquals(new String[]{"excerpt", "name", "title", "version"}, fields.getIncludes());
+    Assert.assertNull(fields.getExcludes());
+    Assert.assertFalse(fields.isAll());
+  }
+
+  @Test
+  public void testPreset() {
+    final Fields fields = Fields.parse(Arrays.asList("card", "wiki"), Collections.singleton("stats"));
+    Assert.assertTrue(Arrays.asList(fields.getIncludes()).containsAll(Arrays.asList("name", "title", "stats", "wiki")));
+    Assert.assertFalse(Arrays.asList(fields.getIncludes()).contains("dependencies"));
+    Assert.assertArrayEquals(new String[]{"stats"}, fields.getExcludes());
+  }
+
+  @Test
+  public void testExcludeName() {
+    final Fields fields = Fields.parse(null, Arrays.asList("name", "dependencies"));
+    Assert.assertNull(fields.getIncludes());
+    Assert.assertArrayEquals(new String[]{"dependencies"}, fields.getExcludes());
+  }
+
+  @Test
+  public void testValue() {
+    Assert.assertEquals(Fields.parse(Arrays.asList("title", "name"), null).value(),
+      Fields.parse(Collections.singleton("name,title"), null).value());
+  }
+
+  @Test
+  public void testProject() {
+    final Plugin plugin = new Plugin();
+    plugin.setName("git");
+    plugin.setTitle("Git");
+    final Plugins plugins = new Plugins(Collections.singletonList(plugin), 1, 1, 1, 50);
+    final JsonNode projected = Fields.parse(Collections.singleton("title,excerpt"), null).project(plugins);
+    final Set<String> names = new TreeSet<>();
+    projected.get("plugins").get(0).fieldNames().forEachRemaining(names::add);
+    Assert.assertEquals(new TreeSet<>(Arrays.asList("excerpt", "name", "title")), names);
+    Assert.assertTrue(projected.get("plugins").get(0).get("excerpt").isNull());
+    Assert.assertEquals(1, projected.get("total").asInt());
+    final JsonNode excluded = Fields.parse(null, Collections.singleton("stats")).project(plugins);
+    Assert.assertFalse(excluded.get("plugins").get(0).has("stats"));
+    Assert.assertTrue(excluded.get("plugins").get(0).has("wiki"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknown() {
+    Fields.parse(Collections.singleton("unknown"), null);
+  }
+
+}
@@ -0,0 +1,62 @@
+package io.jenkins.plugins.services;
+
+import io.jenkins.plugins.models.InstallationPercentageSeries;
+import io.jenkins.plugins.models.InstallationSeries;
+import io.jenkins.plugins.models.Stats;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collections;
+
+public class ResolutionTest {
+
+  // Monthly from 2014-01 to 2016-06
+  private Stats createStats() {
+    final int size = 30;
+    final long[] timestamps = new long[size];
+    final int[] totals = new int[size];
+    final double[] percentages = new double[size];
+    for (int i = 0; i < size; i++) {
+      timestamps[i] = LocalDate.of(2014, 1, 1).plusMonths(i).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+      totals[i] = i;
+      percentages[i] = i / 10.0;
+    }
+    return new Stats(new InstallationSeries(timestamps, totals), new InstallationPercentageSeries(timestamps, percentages),
+      Collections.emptyList(), Collections.emptyList(), 29, 1);
+  }
+
+  @Test
+  public void testFull() {
+    final Stats stats = createStats();
+    Assert.assertSame(stats, Resolution.FULL.apply(stats));
+  }
+
+  @Test
+  public void testYearly() {
+    final Stats stats = Resolution.YEARLY.apply(createStats());
+    Assert.assertEquals(3, stats.getInstallations().size());
+    Assert.assertEquals(11, stats.getInstallations().getTotal(0));
+    Assert.assertEquals(23, stats.getInstallations().getTotal(1));
+    Assert.assertEquals(29, stats.getInstallations().getTotal(2));
+    Assert.assertEquals(3, stats.getInstallationsPercentage().size());
+    Assert.assertEquals(29, stats.getCurrentInstalls());
+  }
+
+  @Test
+  public void testLast12() {
+    final Stats stats = Resolution.LAST12.apply(createStats());
+    Assert.assertEquals(12, stats.getInstallations().size());
+    Assert.assertEquals(18, stats.getInstallations().getTotal(0));
+    Assert.assertEquals(29, stats.getInstallations().getTotal(11));
+    Assert.assertEquals(2.9, stats.getInstallationsPercentage().getPercentage(11), 0);
+  }
+
+  @Test
+  public void testNull() {
+    Assert.assertNull(Resolution.YEARLY.apply(null));
+    Assert.assertNull(Resolution.LAST12.apply(new Stats()).getInstallations());
+  }
+
+}
@@ -0,0 +1,152 @@
+package io.jenkins.plugins.services;
+
+import io.jenkins.plugins.models.GeneratedPluginData;
+import io.jenkins.plugins.models.Plugin;
+import io.jenkins.plugins.models.Plugins;
+import io.jenkins.plugins.models.Stats;
+import io.jenkins.plugins.services.impl.ElasticsearchDatastoreService;
+import io.jenkins.plugins.services.impl.ElasticsearchPrepareDatastoreService;
+import org.glassfish.hk2.api.ServiceLocator;
+import org.glassfish.hk2.utilities.ServiceLocatorUtilities;
+import org.glassfish.hk2.utilities.binding.AbstractBinder;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import javax.inject.Singleton;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
+
+/**
+ * <p>Walks every sort with a cursor over plugins with many ties and missing sort fields, and compares the order with
+ * a single page search</p>
+ */
+public class SearchCursorIntegrationTest {
+
+  private static final int PLUGINS = 97;
+  private static final int LIMIT = 7;
+
+  private static ServiceLocator locator;
+  private static DatastoreService datastoreService;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    final ScheduledExecutorService mockScheduledExecutorService = Mockito.mock(ScheduledExecutorService.class);
+    final GeneratedPluginData data = createData();
+    final ConfigurationService configurationService = new ConfigurationService() {
+      @Override
+      public GeneratedPluginData getIndexData() {
+        return data;
+      }
+
+      @Override
+      public GeneratedPluginData getSnapshotData() {
+        return null;
+      }
+
+      @Override
+      public void invalidateIndexData() {
+      }
+    };
+    locator = ServiceLocatorUtilities.bind(
+      new io.jenkins.plugins.datastore.Binder(),
+      new AbstractBinder() {
+        @Override
+        protected void configure() {
+          bind(configurationService).to(ConfigurationService.class);
+          bind(ElasticsearchDatastoreService.class).to(DatastoreService.class).in(Singleton.class);
+          bind(ElasticsearchPrepareDatastoreService.class).to(PrepareDatastoreService.class).in(Singleton.class);
+          bind(mockScheduledExecutorService).to(ScheduledExecutorService.class);
+        }
+      });
+    datastoreService = locator.getService(DatastoreService.class);
+    locator.getService(PrepareDatastoreService.class).populateDataStore();
+  }
+
+  @AfterClass
+  public static void tearDown() throws Exception {
+    locator.shutdown();
+  }
+
+  @Test
+  public void testEverySort() {
+    for (SortBy sortBy : SortBy.values()) {
+      assertSameOrder(sortBy, null);
+    }
+  }
+
+  @Test
+  public void testEverySortWithLabel() {
+    for (SortBy sortBy : SortBy.values()) {
+      assertSameOrder(sortBy, "odd");
+    }
+  }
+
+  private static void assertSameOrder(SortBy sortBy, String label) {
+    final Plugins all = datastoreService.search(new SearchOptions.Builder()
+      .withSortBy(sortBy)
+      .withLabels(label)
+      .withLimit(PLUGINS + 1)
+      .build());
+    Assert.assertNull("Single page has a cursor", all.getCursor());
+    final List<String> expected = names(all);
+    final List<String> walked = new ArrayList<>();
+    final long pages = (all.getTotal() + LIMIT - 1) / LIMIT;
+    String cursor = null;
+    do {
+      final Plugins page = datastoreService.search(new SearchOptions.Builder()
+        .withSortBy(sortBy)
+        .withLabels(label)
+        .withLimit(LIMIT)
+        .withCursor(Cursor.parse(cursor))
+        .build());
+      Assert.assertTrue("Page is larger than the limit", page.getPlugins().size() <= LIMIT);
+      Assert.assertEquals("Total of a page", all.getTotal(), page.getTotal());
+      Assert.assertEquals("Pages of a page", pages, page.getPages());
+      Assert.assertEquals("Page number", walked.size() / LIMIT + 1, page.getPage());
+      walked.addAll(names(page));
+      cursor = page.getCursor();
+    } while (cursor != null && walked.size() <= expected.size());
+    Assert.assertEquals(String.format("Order of %s with label %s", sortBy.value(), label), expected, walked);
+  }
+
+  private static List<String> names(Plugins plugins) {
+    return plugins.getPlugins().stream().map(Plugin::getName).collect(Collectors.toList());
+  }
+
+  /**
+   * <p>Plugins whose sort fields take few distinct values and are each missing from some plugins</p>
+   */
+  private static GeneratedPluginData createData() {
+    final List<Plugin> plugins = new ArrayList<>();
+    for (int i = 0; i < PLUGINS; i++) {
+      final Plugin plugin = new Plugin();
+      plugin.setName(String.format("plugin-%02d", i));
+      plugin.setTitle(i % 5 == 0 ? null : "Title " + i % 7);
+      if (i % 4 != 0) {
+        final Stats stats = new Stats();
+        stats.setCurrentInstalls(i % 6);
+        stats.setTrend(i % 3 - 1);
+        plugin.setStats(stats);
+      }
+      if (i % 3 != 0) {
+        plugin.setReleaseTimestamp(LocalDateTime.of(2016, 7, 1 + i % 5, 0, 0));
+      }
+      if (i % 2 != 0) {
+        plugin.setFirstRelease(LocalDateTime.of(2015, 3, 1 + i % 4, 0, 0));
+      }
+      plugin.setLabels(Collections.singleton(i % 2 == 0 ? "even" : "odd"));
+      plugins.add(plugin);
+    }
+    final GeneratedPluginData data = new GeneratedPluginData(plugins, null, null);
+    data.setCreatedAt(LocalDateTime.of(2016, 7, 10, 0, 0));
+    return data;
+  }
+
+}